@@ -8,6 +8,7 @@ plugins {
     id("io.papermc.paperweight.userdev") version "2.0.0-beta.21"
     id("xyz.jpenilla.run-paper") version "3.0.0-beta.1" // Adds runServer and runMojangMappedServer tasks for testing
     id("xyz.jpenilla.resource-factory-paper-convention") version "1.3.1" // Generates plugin.yml based on the Gradle config
+    id("me.champeau.jmh") version "0.7.3" // Adds the jmh source set and task for benchmarking
 }
 
 idea {
@@ -91,6 +92,18 @@ dependencies {
     compileOnly(libs.com.viaversion.viaversion.api)
     compileOnly(libs.com.github.techfortress.griefprevention)
     compileOnly(libs.com.github.retrooper.packetevents.spigot)
+
+    jmh(libs.io.papermc.paper.paper.api)
+    jmh(libs.org.xerial.sqlite.jdbc)
+
+    testImplementation(libs.io.papermc.paper.paper.api)
+    testImplementation(libs.org.xerial.sqlite.jdbc)
+    testImplementation(libs.org.junit.jupiter.junit.jupiter)
+    testRuntimeOnly(libs.org.junit.platform.junit.platform.launcher)
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
 
 group = "io.github.Weber588"
@@ -102,6 +115,14 @@ java {
 }
 java.sourceCompatibility = JavaVersion.VERSION_25
 
+// Benchmarks in src/jmh, run with the jmh task. Results are written as JSON per version so they can be
+// compared between releases.
+jmh {
+    jmhVersion = "1.37"
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+}
+
 publishing {
     publications.create<MavenPublication>("maven") {
         from(components["java"])
@@ -0,0 +1,24 @@
+package wbs.utils.util;
+
+import org.bukkit.util.Vector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WbsMathBenchmark {
+
+    @Param({"16", "128", "1024"})
+    public int amount;
+
+    @Benchmark
+    public List<Vector> fibonacciSphere() {
+        return WbsMath.getFibonacciSphere(amount, 2.5);
+    }
+}
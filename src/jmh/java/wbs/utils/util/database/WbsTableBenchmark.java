@@ -0,0 +1,76 @@
+package wbs.utils.util.database;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks upserting records into a temporary SQLite database file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WbsTableBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int records;
+
+    private Path databaseFile;
+    private SQLiteConnectionPool pool;
+    private WbsTable table;
+    private List<WbsRecord> toUpsert;
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("wbs-benchmark", ".db");
+
+        // The plugin is only used for logging, which isn't reached by successful upserts.
+        WbsDatabase database = new WbsDatabase(null, "benchmark");
+        pool = new SQLiteConnectionPool("jdbc:sqlite:" + databaseFile.toAbsolutePath());
+        database.setConnectionProvider(pool);
+
+        WbsField idField = new WbsField("id", WbsFieldType.INT);
+        WbsField nameField = new WbsField("name", WbsFieldType.STRING);
+        WbsField scoreField = new WbsField("score", WbsFieldType.DOUBLE, 0.0);
+
+        table = new WbsTable(database, "benchmark_records", idField);
+        table.addField(nameField, scoreField);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(table.getCreationQuery());
+        }
+
+        toUpsert = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            WbsRecord record = new WbsRecord(database);
+            record.setField(idField, i);
+            record.setField(nameField, "record_" + i);
+            record.setField(scoreField, i * 1.5);
+            toUpsert.add(record);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Benchmark
+    public boolean upsert() throws SQLException, WbsDatabaseException {
+        try (Connection connection = pool.getConnection()) {
+            return table.upsert(toUpsert, connection);
+        }
+    }
+}
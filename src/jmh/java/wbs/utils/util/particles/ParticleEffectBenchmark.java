@@ -0,0 +1,105 @@
+package wbs.utils.util.particles;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building and playing particle effects, with a stand-in world whose players are spread
+ * around the effect, and a {@link RecordingParticleSink} in place of sending packets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleEffectBenchmark {
+
+    @Param({"20", "200"})
+    public int amount;
+
+    @Param({"1", "50"})
+    public int players;
+
+    private RingParticleEffect ring;
+    private Location location;
+    private ParticleSink previousSink;
+    private RecordingParticleSink sink;
+
+    @Setup
+    public void setup() {
+        previousSink = ParticleBatch.getSink();
+        sink = new RecordingParticleSink();
+        ParticleBatch.setSink(sink);
+
+        List<Player> worldPlayers = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            // Alternate between players in and out of range
+            double distance = i % 2 == 0 ? i : ParticleBatch.NORMAL_RANGE + i;
+            worldPlayers.add(stubPlayer(distance, 64, 0));
+        }
+
+        location = new Location(stubWorld(worldPlayers), 0, 64, 0);
+
+        ring = new RingParticleEffect();
+        ring.setRadius(3);
+        ring.setAmount(amount);
+        ring.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ParticleBatch.setSink(previousSink);
+    }
+
+    @Benchmark
+    public List<Location> getLocations() {
+        return ring.getLocations(location);
+    }
+
+    @Benchmark
+    public RecordingParticleSink play() {
+        ring.play(Particle.FLAME, location);
+        return sink;
+    }
+
+    private static World stubWorld(List<Player> players) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] { World.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getPlayers" -> players;
+                    case "getName" -> "benchmark";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "BenchmarkWorld";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Player stubPlayer(double x, double y, double z) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] { Player.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getLocation" -> {
+                        if (args == null || args.length == 0) {
+                            yield new Location(null, x, y, z);
+                        }
+                        Location location = (Location) args[0];
+                        location.setX(x);
+                        location.setY(y);
+                        location.setZ(z);
+                        yield location;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "BenchmarkPlayer";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,35 @@
+package wbs.utils.util.particles;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * A {@link ParticleSink} that records how much would have been sent, rather than sending anything.
+ */
+public class RecordingParticleSink implements ParticleSink {
+
+    private long batches = 0;
+    private long particles = 0;
+    private long viewers = 0;
+
+    @Override
+    public void send(@NotNull ParticleBatch batch, @NotNull Collection<? extends Player> viewers) {
+        batches++;
+        particles += batch.size();
+        this.viewers += viewers.size();
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getParticles() {
+        return particles;
+    }
+
+    public long getViewers() {
+        return viewers;
+    }
+}
@@ -0,0 +1,49 @@
+package wbs.utils.util.providers;
+
+import org.openjdk.jmh.annotations.*;
+import wbs.utils.util.providers.generator.num.PulseGenerator;
+import wbs.utils.util.providers.generator.num.RandomGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumProviderBenchmark {
+
+    private NumProvider staticProvider;
+    private NumProvider pulseProvider;
+    private NumProvider randomProvider;
+
+    @Setup
+    public void setup() {
+        staticProvider = new NumProvider(4.5);
+        pulseProvider = new NumProvider(new PulseGenerator(0, 10, 40, 0));
+        randomProvider = new NumProvider(new RandomGenerator(0, 10));
+    }
+
+    @Benchmark
+    public double staticVal() {
+        return staticProvider.val();
+    }
+
+    @Benchmark
+    public double pulseVal() {
+        return pulseProvider.val();
+    }
+
+    @Benchmark
+    public double pulseRefreshAndVal() {
+        pulseProvider.refresh();
+        return pulseProvider.val();
+    }
+
+    @Benchmark
+    public double randomRefreshAndVal() {
+        randomProvider.refresh();
+        return randomProvider.val();
+    }
+}
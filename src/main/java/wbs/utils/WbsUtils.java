@@ -34,6 +34,8 @@ import wbs.utils.util.*;
 import wbs.utils.util.commands.brigadier.WbsCommand;
 import wbs.utils.util.commands.brigadier.WbsSubcommand;
 import wbs.utils.util.commands.brigadier.argument.WbsSimpleArgument;
+import wbs.utils.util.entities.PlayerSpatialIndex;
+import wbs.utils.util.entities.PlayerSpatialIndexListener;
 import wbs.utils.util.entities.state.EntityStateManager;
 import wbs.utils.util.particles.CuboidParticleEffect;
 import wbs.utils.util.particles.WbsParticleEffect;
@@ -42,6 +44,7 @@ import wbs.utils.util.particles.entity.EntityParticle;
 import wbs.utils.util.particles.entity.TextDisplayParticleBuilder;
 import wbs.utils.util.particles.entity.interpolation.InterpolatedFrameGenerator;
 import wbs.utils.util.particles.entity.interpolation.ValueKeyframe;
+import wbs.utils.util.persistent.BlockChunkStorageListener;
 import wbs.utils.util.persistent.BlockChunkStorageUtil;
 import wbs.utils.util.plugin.WbsPlugin;
 import wbs.utils.util.pluginhooks.PluginHookManager;
@@ -75,6 +78,10 @@ public class WbsUtils extends WbsPlugin {
 
 		EntityStateManager.registerConfigurableClasses();
 
+		registerListener(new BlockChunkStorageListener());
+		registerListener(new PlayerSpatialIndexListener());
+		PlayerSpatialIndex.start();
+
 		WbsParticleEffect.setPlugin(this);
 
 		WbsCommand.getStatic(this, "utils")
@@ -394,7 +401,9 @@ public class WbsUtils extends WbsPlugin {
 
     @Override
     public void onDisable() {
-    	
+    	BlockChunkStorageUtil.flushAll();
+    	PlayerSpatialIndex.stop();
+    	super.onDisable();
     }
 
 	public boolean isLoaded() {
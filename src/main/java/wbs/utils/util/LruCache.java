@@ -0,0 +1,97 @@
+package wbs.utils.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A thread safe cache holding at most a fixed number of entries, evicting the least recently used entry
+ * when full. Values are computed outside the lock, so a slow computation doesn't block other lookups.
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+@SuppressWarnings("unused")
+public final class LruCache<K, V> {
+    private final Object lock = new Object();
+    private final LinkedHashMap<K, V> entries;
+    // Incremented on clear, so values computed before a clear aren't cached after it
+    private int generation = 0;
+
+    /**
+     * @param maxSize The most entries to hold at once.
+     */
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive.");
+        }
+
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param key The key to look up.
+     * @return The cached value, or null if none is cached.
+     */
+    @Nullable
+    public V get(@NotNull K key) {
+        synchronized (lock) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Gets the cached value for the given key, computing and caching it if absent.
+     * @param key The key to look up.
+     * @param compute Computes the value for a key that isn't cached. Must not return null.
+     * @return The cached or computed value.
+     */
+    @NotNull
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> compute) {
+        int startGeneration;
+        synchronized (lock) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            startGeneration = generation;
+        }
+
+        V computed = compute.apply(key);
+
+        synchronized (lock) {
+            if (generation != startGeneration) {
+                return computed;
+            }
+
+            V existing = entries.putIfAbsent(key, computed);
+            return existing != null ? existing : computed;
+        }
+    }
+
+    /**
+     * Removes every entry, including any values still being computed.
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    /**
+     * @return The number of entries currently cached.
+     */
+    public int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+}
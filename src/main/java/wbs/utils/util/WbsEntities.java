@@ -25,9 +25,11 @@ import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.bukkit.inventory.EntityEquipment;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.BoundingBox;
 import org.bukkit.util.RayTraceResult;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.Nullable;
+import wbs.utils.util.entities.PlayerSpatialIndex;
 
 /**
  * @deprecated Use {@link wbs.utils.util.entities.WbsEntityUtil} or {@link wbs.utils.util.entities.WbsPlayerUtil}
@@ -242,6 +244,18 @@ public final class WbsEntities {
 	public static <T extends Entity> Set<T> getNearby(Location loc, double range, Set<T> exclude, Class<T> clazz, Predicate<T> predicate) {
 		World world = loc.getWorld();
 		if (world == null) throw new IllegalArgumentException();
+
+		if (clazz == Player.class) { // Avoid scanning every entity when only players are needed
+			Set<T> targets = new HashSet<>();
+			for (Player player : PlayerSpatialIndex.getOverlapping(world, BoundingBox.of(loc, range, range, range))) {
+				T target = (T) player;
+				if (predicate.test(target) && (exclude == null || !exclude.contains(target))) {
+					targets.add(target);
+				}
+			}
+			return targets;
+		}
+
 		Collection<Entity> entities = world.getNearbyEntities(loc, range, range, range);
 	
 		Set<LivingEntity> nearbyLiving = new HashSet<>();
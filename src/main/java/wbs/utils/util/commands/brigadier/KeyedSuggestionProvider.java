@@ -1,19 +1,35 @@
 package wbs.utils.util.commands.brigadier;
 
 import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import net.kyori.adventure.key.Keyed;
 
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @SuppressWarnings({"UnstableApiUsage", "unused"})
 public interface KeyedSuggestionProvider<T extends Keyed> extends WbsSuggestionProvider<T> {
+    /**
+     * Gets a provider that suggests from the given keyed values, iterating them on every query so later
+     * changes to the values are reflected.
+     * @see #getIndexedKeyed(Iterable)
+     */
     static <T extends Keyed> KeyedSuggestionProvider<T> getStaticKeyed(Iterable<T> staticKeyed) {
         return new StaticKeysProvider<>(staticKeyed);
     }
 
+    /**
+     * Gets a provider that answers queries from a {@link SuggestionIndex} of the given keyed values, so
+     * large registries don't need to be scanned per keystroke.<p>
+     * The values are copied when the provider is created, and later changes to them aren't reflected.
+     * Use {@link #getStaticKeyed(Iterable)} for values that may change.
+     */
+    static <T extends Keyed> KeyedSuggestionProvider<T> getIndexedKeyed(Iterable<T> values) {
+        return new IndexedKeysProvider<>(values);
+    }
+
     @Override
     default String toString(T value) {
         return value.key().asString();
@@ -45,4 +61,31 @@ public interface KeyedSuggestionProvider<T extends Keyed> extends WbsSuggestionP
             return staticKeyed;
         }
     }
+
+    /**
+     * A provider for a snapshot of keyed values, answering queries from a {@link SuggestionIndex} built
+     * when the provider is created.
+     */
+    class IndexedKeysProvider<T extends Keyed> implements KeyedSuggestionProvider<T> {
+        private final List<T> values;
+        private final SuggestionIndex<T> index;
+
+        public IndexedKeysProvider(Iterable<T> values) {
+            List<T> snapshot = new ArrayList<>();
+            values.forEach(snapshot::add);
+
+            this.values = Collections.unmodifiableList(snapshot);
+            this.index = new SuggestionIndex<>(this.values, this::toString, this::getSuggestionMatches, getDefaultTooltip());
+        }
+
+        @Override
+        public Iterable<T> getSuggestions(CommandContext<CommandSourceStack> context) {
+            return values;
+        }
+
+        @Override
+        public CompletableFuture<Suggestions> getSuggestions(CommandContext<CommandSourceStack> context, SuggestionsBuilder builder) {
+            return index.suggest(builder);
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package wbs.utils.util.commands.brigadier;
+
+import com.mojang.brigadier.LiteralMessage;
+import com.mojang.brigadier.Message;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A fixed set of suggestions, indexed by every lowercase string each one can be matched by, so prefix
+ * queries are answered by binary search rather than by checking every value.<p>
+ * Suggestion text and tooltips are computed once when the index is built, and later changes to the
+ * source values aren't reflected.
+ * @param <T> The type of value being suggested.
+ */
+@SuppressWarnings("unused")
+public final class SuggestionIndex<T> {
+
+    /**
+     * The default maximum number of suggestions returned for a single query.
+     */
+    public static final int DEFAULT_MAX_RESULTS = 500;
+
+    // The text suggested for each value, by value index
+    private final String[] suggestions;
+    // Every lowercase match string, sorted, with the index of the value it matches at the same position
+    private final String[] matches;
+    private final int[] matchValues;
+    @Nullable
+    private final Message tooltip;
+    private final int maxResults;
+
+    public SuggestionIndex(@NotNull Iterable<T> values,
+                           @NotNull Function<T, String> toString,
+                           @NotNull Function<T, Collection<String>> getMatches,
+                           @Nullable String tooltip) {
+        this(values, toString, getMatches, tooltip, DEFAULT_MAX_RESULTS);
+    }
+
+    public SuggestionIndex(@NotNull Iterable<T> values,
+                           @NotNull Function<T, String> toString,
+                           @NotNull Function<T, Collection<String>> getMatches,
+                           @Nullable String tooltip,
+                           int maxResults) {
+        List<String> suggestionList = new ArrayList<>();
+        List<MatchEntry> entries = new ArrayList<>();
+
+        for (T value : values) {
+            int valueIndex = suggestionList.size();
+            suggestionList.add(toString.apply(value));
+
+            for (String match : getMatches.apply(value)) {
+                entries.add(new MatchEntry(match.toLowerCase(Locale.ROOT), valueIndex));
+            }
+        }
+
+        entries.sort(Comparator.comparing(MatchEntry::match));
+
+        suggestions = suggestionList.toArray(new String[0]);
+        matches = new String[entries.size()];
+        matchValues = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            matches[i] = entries.get(i).match();
+            matchValues[i] = entries.get(i).value();
+        }
+
+        this.tooltip = tooltip == null ? null : new LiteralMessage(tooltip);
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Adds every value matching the builder's remaining input, up to the maximum number of results.
+     * @param builder The builder to add suggestions to.
+     * @return The built suggestions.
+     */
+    public CompletableFuture<Suggestions> suggest(@NotNull SuggestionsBuilder builder) {
+        String prefix = builder.getRemainingLowerCase();
+
+        // Values may be matched by more than one string, but should only be suggested once
+        BitSet suggested = new BitSet(suggestions.length);
+        int added = 0;
+
+        for (int i = lowerBound(prefix); i < matches.length && added < maxResults; i++) {
+            if (!matches[i].startsWith(prefix)) {
+                break;
+            }
+
+            int value = matchValues[i];
+            if (suggested.get(value)) {
+                continue;
+            }
+            suggested.set(value);
+            added++;
+
+            if (tooltip != null) {
+                builder.suggest(suggestions[value], tooltip);
+            } else {
+                builder.suggest(suggestions[value]);
+            }
+        }
+
+        return builder.buildFuture();
+    }
+
+    /**
+     * @return The index of the first match that isn't before the given prefix.
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = matches.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (matches[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The number of values in this index.
+     */
+    public int size() {
+        return suggestions.length;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    private record MatchEntry(String match, int value) {}
+}
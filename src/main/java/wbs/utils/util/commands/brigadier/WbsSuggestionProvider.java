@@ -8,15 +8,17 @@ import io.papermc.paper.command.brigadier.CommandSourceStack;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Objects;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 @SuppressWarnings({"UnstableApiUsage", "unused"})
 public interface WbsSuggestionProvider<T> extends SuggestionProvider<CommandSourceStack> {
+    /**
+     * Gets a provider that suggests from the given values, iterating them on every query so later changes
+     * to the values are reflected.
+     * @see #getIndexed(Iterable, Function, String)
+     */
     static <T> StaticKeysProvider<T> getStatic(@NotNull Iterable<T> values, @NotNull Function<T, String> toString, @Nullable String tooltip) {
         return new StaticKeysProvider<>(values, toString, tooltip);
     }
@@ -27,6 +29,22 @@ public interface WbsSuggestionProvider<T> extends SuggestionProvider<CommandSour
         return getStatic(values, Objects::toString);
     }
 
+    /**
+     * Gets a provider that answers queries from a {@link SuggestionIndex} of the given values, so large
+     * sets don't need to be scanned per keystroke.<p>
+     * The values are copied when the provider is created, and later changes to them aren't reflected.
+     * Use {@link #getStatic(Iterable, Function, String)} for values that may change.
+     */
+    static <T> IndexedProvider<T> getIndexed(@NotNull Iterable<T> values, @NotNull Function<T, String> toString, @Nullable String tooltip) {
+        return new IndexedProvider<>(values, toString, tooltip);
+    }
+    static <T> IndexedProvider<T> getIndexed(@NotNull Iterable<T> values, @NotNull Function<T, String> toString) {
+        return getIndexed(values, toString, null);
+    }
+    static <T> IndexedProvider<T> getIndexed(@NotNull Iterable<T> values) {
+        return getIndexed(values, Objects::toString);
+    }
+
     static boolean shouldSuggest(SuggestionsBuilder builder, String suggestion) {
         return suggestion.toLowerCase().startsWith(builder.getRemainingLowerCase());
     }
@@ -88,4 +106,45 @@ public interface WbsSuggestionProvider<T> extends SuggestionProvider<CommandSour
             return toString.apply(value);
         }
     }
+
+    /**
+     * A provider for a snapshot of values, answering queries from a {@link SuggestionIndex} built when the
+     * provider is created.
+     */
+    final class IndexedProvider<T> implements WbsSuggestionProvider<T> {
+        private final @NotNull List<T> values;
+        private final @NotNull Function<T, String> toString;
+        private final @Nullable String tooltip;
+        private final @NotNull SuggestionIndex<T> index;
+
+        public IndexedProvider(@NotNull Iterable<T> values, @NotNull Function<T, String> toString, @Nullable String tooltip) {
+            List<T> snapshot = new ArrayList<>();
+            values.forEach(snapshot::add);
+
+            this.values = Collections.unmodifiableList(snapshot);
+            this.toString = toString;
+            this.tooltip = tooltip;
+            this.index = new SuggestionIndex<>(this.values, this::toString, this::getSuggestionMatches, tooltip);
+        }
+
+        @Override
+        public @Nullable String getDefaultTooltip() {
+            return tooltip;
+        }
+
+        @Override
+        public Iterable<T> getSuggestions(CommandContext<CommandSourceStack> context) {
+            return values;
+        }
+
+        @Override
+        public String toString(T value) {
+            return toString.apply(value);
+        }
+
+        @Override
+        public CompletableFuture<Suggestions> getSuggestions(CommandContext<CommandSourceStack> context, SuggestionsBuilder builder) {
+            return index.suggest(builder);
+        }
+    }
 }
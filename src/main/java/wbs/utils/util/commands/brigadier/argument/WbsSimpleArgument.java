@@ -89,7 +89,8 @@ public class WbsSimpleArgument<T> {
                     ConfiguredArgumentMap map = new ConfiguredArgumentMap(context, all);
                     return function.apply(context, map);
                 })
-                .suggests(suggestionProvider != null ? suggestionProvider : WbsSuggestionProvider.getStatic(suggestions, toString, tooltip));
+                // The tree is built once the arguments are configured, so the suggestions can be indexed
+                .suggests(suggestionProvider != null ? suggestionProvider : WbsSuggestionProvider.getIndexed(suggestions, toString, tooltip));
 
         if (!next.isEmpty()) {
             WbsSimpleArgument<?> first = next.removeFirst();
@@ -168,7 +169,7 @@ public class WbsSimpleArgument<T> {
         public <U extends NamespacedKey> WbsSimpleArgument<NamespacedKey> addSuggestions(Collection<U> suggestions) {
             super.addSuggestions(suggestions);
 
-            this.setSuggestionProvider(KeyedSuggestionProvider.getStaticKeyed(this.suggestions));
+            this.setSuggestionProvider(KeyedSuggestionProvider.getIndexedKeyed(this.suggestions));
 
             return this;
         }
@@ -177,7 +178,7 @@ public class WbsSimpleArgument<T> {
         public WbsSimpleArgument<NamespacedKey> setSuggestions(Collection<NamespacedKey> suggestions) {
             super.setSuggestions(suggestions);
 
-            this.setSuggestionProvider(KeyedSuggestionProvider.getStaticKeyed(this.suggestions));
+            this.setSuggestionProvider(KeyedSuggestionProvider.getIndexedKeyed(this.suggestions));
 
             return this;
         }
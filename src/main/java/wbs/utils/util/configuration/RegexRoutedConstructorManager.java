@@ -3,14 +3,30 @@ package wbs.utils.util.configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.jetbrains.annotations.Nullable;
 import org.jspecify.annotations.NullMarked;
+import wbs.utils.util.LruCache;
 import wbs.utils.util.plugin.WbsSettings;
 
-import java.util.LinkedList;
-import java.util.Optional;
+import java.util.*;
+import java.util.regex.Pattern;
 
+/**
+ * Routes config keys to constructors by regex, where the first registered route matching a key wins.<p>
+ * Routes are compiled once when registered. Routes that are plain literals are indexed by their exact
+ * key, and the route resolved for recently used keys is remembered until another route is registered.
+ */
 @NullMarked
 public class RegexRoutedConstructorManager<T> {
-    private final LinkedList<RegisteredRegexRoute> registeredRegexRoutes = new LinkedList<>();
+    /**
+     * The most distinct keys to remember routes for, evicting the least recently used beyond that.
+     */
+    private static final int MAX_CACHED_KEYS = 1024;
+
+    private final List<RegisteredRegexRoute> registeredRegexRoutes = new ArrayList<>();
+    // The index of the first route for each literal regex
+    private final Map<String, Integer> literalRoutes = new HashMap<>();
+    // The indices of routes that aren't literals, in registration order
+    private final List<Integer> patternRoutes = new ArrayList<>();
+    private final LruCache<String, Optional<RegisteredRegexRoute>> resolvedRoutes = new LruCache<>(MAX_CACHED_KEYS);
 
     private final Class<T> classToConstruct;
 
@@ -25,7 +41,25 @@ public class RegexRoutedConstructorManager<T> {
         register(regex, (ConfigConstructor<T>) constructor);
     }
     public void register(String regex, ConfigConstructor<T> constructor) {
+        int index = registeredRegexRoutes.size();
         registeredRegexRoutes.add(new RegisteredRegexRoute(regex, constructor));
+
+        if (isLiteral(regex)) {
+            literalRoutes.putIfAbsent(regex, index);
+        } else {
+            patternRoutes.add(index);
+        }
+
+        resolvedRoutes.clear();
+    }
+
+    private static boolean isLiteral(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            if ("\\[](){}.*+?^$|".indexOf(regex.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Nullable
@@ -36,9 +70,29 @@ public class RegexRoutedConstructorManager<T> {
     }
 
     public Optional<RegisteredRegexRoute> getRegistration(String key) {
-        return registeredRegexRoutes.stream()
-                .filter(reg -> reg.matches(key))
-                .findFirst();
+        return resolvedRoutes.computeIfAbsent(key, this::resolve);
+    }
+
+    private Optional<RegisteredRegexRoute> resolve(String key) {
+        Integer literalIndex = literalRoutes.get(key);
+        int firstLiteral = literalIndex == null ? Integer.MAX_VALUE : literalIndex;
+
+        // A pattern route only wins if it was registered before the matching literal
+        for (int index : patternRoutes) {
+            if (index > firstLiteral) {
+                break;
+            }
+
+            RegisteredRegexRoute route = registeredRegexRoutes.get(index);
+            if (route.matches(key)) {
+                return Optional.of(route);
+            }
+        }
+
+        if (literalIndex != null) {
+            return Optional.of(registeredRegexRoutes.get(literalIndex));
+        }
+        return Optional.empty();
     }
 
     @Nullable
@@ -48,6 +102,7 @@ public class RegexRoutedConstructorManager<T> {
 
     public final class RegisteredRegexRoute {
         private final String regex;
+        private final Pattern pattern;
         private final ConfigConstructor<T> constructor;
 
         public RegisteredRegexRoute(
@@ -55,12 +110,13 @@ public class RegexRoutedConstructorManager<T> {
                 ConfigConstructor<T> constructor
         ) {
             this.regex = regex;
+            this.pattern = Pattern.compile(regex);
             this.constructor = constructor;
         }
 
         public boolean matches(String key) {
-                return key.matches(regex);
-            }
+            return pattern.matcher(key).matches();
+        }
 
         public String regex() {
             return regex;
@@ -19,7 +19,7 @@ public class AllCondition extends ConditionAggregator {
 
     @Override
     public boolean testGeneric(Object object) {
-        return conditions.stream().allMatch(condition -> condition.test(object));
+        return allMatch(object);
     }
 
     @Override
@@ -18,7 +18,7 @@ public class AnyCondition extends ConditionAggregator {
 
     @Override
     public boolean testGeneric(Object object) {
-        return conditions.stream().anyMatch(condition -> condition.test(object));
+        return anyMatch(object);
     }
 
     @Override
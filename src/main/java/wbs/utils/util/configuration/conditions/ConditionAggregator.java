@@ -9,11 +9,23 @@ import wbs.utils.util.plugin.WbsSettings;
 
 import java.util.*;
 
+/**
+ * A condition made up of other conditions, which are held in order of their {@link ConfigurableCondition#getCost()},
+ * so implementations that short-circuit test the cheapest conditions first.
+ */
 public abstract class ConditionAggregator implements GenericCondition {
-    protected final Set<ConfigurableCondition> conditions = new HashSet<>();
+    /**
+     * An unmodifiable view of the aggregated conditions, iterated in order of cost.
+     */
+    protected final Set<ConfigurableCondition> conditions;
+    // The same conditions, for allocation-free iteration when testing
+    private final ConfigurableCondition[] sortedConditions;
+    private final int cost;
 
     public ConditionAggregator(Collection<ConfigurableCondition> conditions) {
-        this.conditions.addAll(conditions);
+        this.sortedConditions = sortByCost(new LinkedHashSet<>(conditions));
+        this.conditions = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(sortedConditions)));
+        this.cost = sumCost(sortedConditions);
     }
 
     public ConditionAggregator(ConfigurationSection parent, String key, @Nullable WbsSettings settings, @Nullable String directory) {
@@ -23,6 +35,8 @@ public abstract class ConditionAggregator implements GenericCondition {
 
         List<@NotNull ConfigurationSection> sectionList = WbsConfigReader.getSectionList(parent, key);
 
+        Set<ConfigurableCondition> conditions = new LinkedHashSet<>();
+
         for (int i = 0; i < sectionList.size(); i++) {
             ConfigurationSection section = sectionList.get(i);
             String entryDirectory = directory == null ? null : directory + "[" + i + "]";
@@ -53,6 +67,61 @@ public abstract class ConditionAggregator implements GenericCondition {
         if (conditions.isEmpty()) {
             throw new InvalidConfigurationException(parent.getName() + " must have at least 1 valid sub-condition.", directory);
         }
+
+        this.sortedConditions = sortByCost(conditions);
+        this.conditions = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(sortedConditions)));
+        this.cost = sumCost(sortedConditions);
+    }
+
+    private static ConfigurableCondition[] sortByCost(Collection<ConfigurableCondition> conditions) {
+        ConfigurableCondition[] sorted = conditions.toArray(new ConfigurableCondition[0]);
+        // Stable, so conditions of equal cost keep their configured order
+        Arrays.sort(sorted, Comparator.comparingInt(ConfigurableCondition::getCost));
+        return sorted;
+    }
+
+    private static int sumCost(ConfigurableCondition[] conditions) {
+        long total = 0;
+        for (ConfigurableCondition condition : conditions) {
+            total += condition.getCost();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * Tests the conditions in order of cost, stopping at the first that fails.
+     * @param object The object to test.
+     * @return Whether every condition passed.
+     */
+    protected boolean allMatch(Object object) {
+        for (ConfigurableCondition condition : sortedConditions) {
+            if (!condition.test(object)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests the conditions in order of cost, stopping at the first that passes.
+     * @param object The object to test.
+     * @return Whether any condition passed.
+     */
+    protected boolean anyMatch(Object object) {
+        for (ConfigurableCondition condition : sortedConditions) {
+            if (condition.test(object)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The total cost of every aggregated condition, as at most all of them will be tested.
+     */
+    @Override
+    public int getCost() {
+        return cost;
     }
 
     /// Get a condition aggregator with the given conditions, for use in aggregating map list entries that contain more than 1 condition.
@@ -3,6 +3,28 @@ package wbs.utils.util.configuration.conditions;
 import org.jetbrains.annotations.Nullable;
 
 public interface ConfigurableCondition {
+    /**
+     * The cost of a condition that only compares a single cheap value, such as a material or world.
+     */
+    int CHEAP_COST = 1;
+    /**
+     * The cost of a condition with no better estimate.
+     */
+    int DEFAULT_COST = 10;
+    /**
+     * The cost of a condition that reads expensive state, such as item components or regions.
+     */
+    int EXPENSIVE_COST = 100;
+
+    /**
+     * Estimates the relative cost of testing this condition, so {@link ConditionAggregator}s can test
+     * cheaper conditions first.
+     * @return The estimated cost, where lower is cheaper.
+     */
+    default int getCost() {
+        return DEFAULT_COST;
+    }
+
     default boolean canTest(@Nullable Object object) {
         return ConfigurableConditionManager.canTest(this, object);
     }
@@ -14,7 +14,7 @@ import wbs.utils.util.configuration.TrivialConfigConstructor;
 import wbs.utils.util.configuration.conditions.item.ItemComponentCondition;
 import wbs.utils.util.plugin.WbsSettings;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.BiFunction;
@@ -24,6 +24,9 @@ public class ConfigurableConditionManager {
     private static final List<RegisteredConditionType<?, ?>> CONDITION_TYPES = new LinkedList<>();
     private static final LinkedList<RegisteredCondition> CONDITIONS = new LinkedList<>();
 
+    // Rebuilt whenever a condition type is registered, so cached lookups never miss a new type
+    private static volatile DispatchTable dispatchTable = new DispatchTable(List.of());
+
     static {
         registerConditionType(BlockCondition.class, Block.class, BlockCondition::testBlock);
 
@@ -74,33 +77,31 @@ public class ConfigurableConditionManager {
                 predicate,
                 tester)
         );
+
+        dispatchTable = new DispatchTable(CONDITION_TYPES);
     }
 
     public static boolean canTest(ConfigurableCondition condition, @Nullable Object object) {
-        return CONDITION_TYPES.stream().anyMatch(reg -> {
-            if (reg.conditionClass.isAssignableFrom(condition.getClass())) {
-                return reg.testObjClass.isAssignableFrom(object == null ? Object.class : object.getClass());
-            }
-            return false;
-        });
+        return dispatchTable.getTypes(condition.getClass(), object).length > 0;
     }
 
     public static boolean test(ConfigurableCondition condition, Object object) {
         return test(condition, object, false);
     }
     public static boolean test(ConfigurableCondition condition, Object object, boolean defaultWhenNoCorrectType) {
-        List<RegisteredConditionType<?, ?>> types = new ArrayList<>();
-        for (RegisteredConditionType<?, ?> type : CONDITION_TYPES) {
-            if (type.conditionClass.isAssignableFrom(condition.getClass())) {
-                types.add(type);
-            }
-        }
+        ConditionTypes conditionTypes = dispatchTable.getTypes(condition.getClass());
 
-        if (types.isEmpty()) {
+        if (conditionTypes.isEmpty()) {
             return defaultWhenNoCorrectType;
         }
 
-        return types.stream().anyMatch(reg -> reg.test(condition, object));
+        for (RegisteredConditionType<?, ?> type : conditionTypes.getTypes(object)) {
+            if (type.test(condition, object)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     @Nullable
@@ -129,14 +130,82 @@ public class ConfigurableConditionManager {
             BiPredicate<ConfigurableCondition, Object> testObjChecker,
             BiFunction<C, T, Boolean> tester
     ) {
-        public boolean test(ConfigurableCondition condition, Object object) {
-            if (canTest(condition, object)) {
+        public boolean test(ConfigurableCondition condition, @Nullable Object object) {
+            if (!conditionClass.isInstance(condition)) {
+                return false;
+            }
+
+            boolean canTest;
+            if (object == null) {
+                canTest = testObjClass == Object.class;
+            } else {
+                canTest = testObjChecker.test(condition, object);
+            }
+
+            if (canTest) {
                 return tester.apply(conditionClass.cast(condition), testObjClass.cast(object));
             }
             return false;
         }
     }
 
+    /**
+     * A snapshot of the registered condition types, resolving which types apply to each condition class
+     * and tested object class once, and caching the result per class.
+     */
+    private static final class DispatchTable {
+        private final List<RegisteredConditionType<?, ?>> types;
+
+        private final ClassValue<ConditionTypes> byConditionClass = new ClassValue<>() {
+            @Override
+            protected ConditionTypes computeValue(Class<?> conditionClass) {
+                return new ConditionTypes(types.stream()
+                        .filter(type -> type.conditionClass().isAssignableFrom(conditionClass))
+                        .toArray(RegisteredConditionType<?, ?>[]::new));
+            }
+        };
+
+        private DispatchTable(List<RegisteredConditionType<?, ?>> types) {
+            this.types = List.copyOf(types);
+        }
+
+        private ConditionTypes getTypes(Class<?> conditionClass) {
+            return byConditionClass.get(conditionClass);
+        }
+
+        private RegisteredConditionType<?, ?>[] getTypes(Class<?> conditionClass, @Nullable Object object) {
+            return getTypes(conditionClass).getTypes(object);
+        }
+    }
+
+    /**
+     * The condition types that apply to a single condition class, further narrowed by tested object class.
+     */
+    private static final class ConditionTypes {
+        private final RegisteredConditionType<?, ?>[] types;
+
+        private final ClassValue<RegisteredConditionType<?, ?>[]> byObjectClass = new ClassValue<>() {
+            @Override
+            protected RegisteredConditionType<?, ?>[] computeValue(Class<?> objectClass) {
+                return Arrays.stream(types)
+                        .filter(type -> type.testObjClass().isAssignableFrom(objectClass))
+                        .toArray(RegisteredConditionType<?, ?>[]::new);
+            }
+        };
+
+        private ConditionTypes(RegisteredConditionType<?, ?>[] types) {
+            this.types = types;
+        }
+
+        private boolean isEmpty() {
+            return types.length == 0;
+        }
+
+        private RegisteredConditionType<?, ?>[] getTypes(@Nullable Object object) {
+            return byObjectClass.get(object == null ? Object.class : object.getClass());
+        }
+    }
+
     public record RegisteredCondition(
             String regex,
             ConfigConstructor<ConfigurableCondition> constructor
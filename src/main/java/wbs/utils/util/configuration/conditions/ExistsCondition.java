@@ -5,4 +5,9 @@ public class ExistsCondition implements GenericCondition {
     public boolean testGeneric(Object object) {
         return object != null;
     }
+
+    @Override
+    public int getCost() {
+        return 0;
+    }
 }
@@ -7,6 +7,11 @@ import org.bukkit.inventory.ItemStack;
 public interface MaterialCondition extends BlockCondition, ItemCondition, ConfigurableCondition {
     boolean testMaterial(Material material);
 
+    @Override
+    default int getCost() {
+        return CHEAP_COST;
+    }
+
     @Override
     default boolean testBlock(Block block) {
         return testMaterial(block.getType());
@@ -6,6 +6,11 @@ import org.bukkit.World;
 public interface WorldCondition extends LocationCondition, ConfigurableCondition {
     boolean testWorld(World world);
 
+    @Override
+    default int getCost() {
+        return CHEAP_COST;
+    }
+
     @Override
     default boolean testLocation(Location location) {
         return testWorld(location.getWorld());
@@ -95,6 +95,11 @@ public class ItemComponentCondition implements ItemCondition {
         }
     }
 
+    @Override
+    public int getCost() {
+        return EXPENSIVE_COST;
+    }
+
     @Override
     public boolean testItem(ItemStack item) {
         return switch (operation) {
@@ -1,5 +1,6 @@
 package wbs.utils.util.database;
 
+import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import wbs.utils.WbsUtils;
@@ -9,6 +10,9 @@ import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -43,15 +47,12 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      * Represents which caching type to use for the volatile cache.
      */
     protected VolatileCacheType volatileCacheType = VolatileCacheType.WEAK;
-    private final Map<K, Reference<T>> volatileCache = new HashMap<>();
 
-    private int cacheSize = 25;
-    private final Map<K, T> cache = new LinkedHashMap<K, T>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<K, T> eldest) {
-            return size() > cacheSize;
-        }
-    };
+    private final DataCache<K, T> cache = new DataCache<>(25, value -> volatileCacheType.createReference(value));
+
+    private final Map<K, T> dirty = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private int writeBehindTaskId = -1;
 
     /**
      * Gets a shallow copy of the merged cache, including both the guaranteed cache and the
@@ -59,27 +60,21 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      * @return The merged cache.
      */
     public Map<K, T> getCache() {
-        Map<K, T> mergedCache = new HashMap<>(cache);
-
-        if (volatileCacheType != VolatileCacheType.DISABLED) {
-            Set<K> toRemove = new HashSet<>();
-
-            for (K volatileKey : volatileCache.keySet()) {
-                Reference<T> ref = volatileCache.get(volatileKey);
-                T value = ref.get();
-                if (value != null) {
-                    mergedCache.putIfAbsent(volatileKey, value);
-                } else {
-                    toRemove.add(volatileKey);
-                }
-            }
+        return cache.asMap();
+    }
 
-            for (K volatileKey : toRemove) {
-                volatileCache.remove(volatileKey);
-            }
-        }
+    /**
+     * @return A snapshot of the cache's hit, miss, eviction and load statistics.
+     */
+    public DataCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
 
-        return mergedCache;
+    /**
+     * Resets the cache's statistics to zero.
+     */
+    public void resetCacheStats() {
+        cache.resetStats();
     }
 
     /**
@@ -92,14 +87,24 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
     /**
      * Set the number of objects that are cached in active memory to prevent
      * unneeded calls to the database. Changing the cache size while populated
-     * with more entries than the new size will not remove excess entries.
+     * with more entries than the new size will evict the least recently used entries.
      * <br/>
      * This is the number of records guaranteed to exist in the cache once populated,
      * however more may be stored as {@link SoftReference}s.
      * @param size The new size of the cache.
      */
     public void setCacheSize(int size) {
-        cacheSize = size;
+        cache.setMaximumSize(size);
+    }
+
+    /**
+     * Set how long an object may go unused before it's removed from the guaranteed cache.
+     * Objects removed this way may still be retrieved from the volatile cache.
+     * @param duration The time before unused objects expire, or 0 to never expire.
+     * @param unit The unit of the given duration.
+     */
+    public void setCacheExpiry(long duration, TimeUnit unit) {
+        cache.setExpireAfterAccess(duration, unit);
     }
 
     /**
@@ -107,10 +112,7 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      * @return The number of entries the cache contained prior to being cleared.
      */
     public int clearCache() {
-        int size = getCache().size();
-        cache.clear();
-        volatileCache.clear();
-        return size;
+        return cache.clear();
     }
 
     /**
@@ -120,17 +122,6 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      */
     protected void addToCache(K key, T value) {
         cache.put(key, value);
-
-        switch (volatileCacheType) {
-            case SOFT:
-                volatileCache.put(key, new SoftReference<>(value));
-                break;
-            case WEAK:
-                volatileCache.put(key, new WeakReference<>(value));
-                break;
-            case DISABLED:
-                break;
-        }
     }
 
     /**
@@ -142,21 +133,101 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      */
     @NotNull
     public T get(K key) {
-        Map<K, T> mergedCache = getCache();
-        if (mergedCache.containsKey(key)) return mergedCache.get(key);
+        return cache.get(key, this::load);
+    }
 
+    @NotNull
+    private T load(K key) {
         WbsRecord record = select(Collections.singletonList(key));
 
-        T found;
         if (record != null) {
-            found = fromRecord(record);
+            return fromRecord(record);
         } else {
-            found = produceDefault(key);
+            return produceDefault(key);
         }
+    }
+
+    /**
+     * Synchronously get values for all the given keys, loading any that aren't cached in bulk
+     * rather than one at a time. It's recommended to use {@link #getAllAsync(Collection, Consumer)}
+     * to avoid freezing the server, or use this in an asynchronous thread.
+     * @param keys The keys to retrieve by.
+     * @return A map of each key to its value, or a new value based on the key.
+     */
+    @NotNull
+    public Map<K, T> getAll(Collection<K> keys) {
+        return cache.getAll(keys, this::loadAll);
+    }
 
-        addToCache(key, found);
+    @NotNull
+    private Map<K, T> loadAll(List<K> keys) {
+        Map<K, WbsRecord> records = selectAll(keys);
 
-        return found;
+        Map<K, T> loaded = new HashMap<>();
+        for (K key : keys) {
+            WbsRecord record = records.get(key);
+            loaded.put(key, record != null ? fromRecord(record) : produceDefault(key));
+        }
+        return loaded;
+    }
+
+    /**
+     * Get values for all the given keys asynchronously, or synchronously if all are cached.
+     * @param keys The keys to retrieve by.
+     * @param callback The consumer to be called on the main thread once all values are available.
+     * @return The Id of the scheduled BukkitTask, or -1 if all values were cached.
+     */
+    public int getAllAsync(Collection<K> keys, @NotNull Consumer<Map<K, T>> callback) {
+        Map<K, T> cached = new LinkedHashMap<>();
+        for (K key : keys) {
+            T value = cache.peek(key);
+            if (value == null) {
+                return plugin.getAsync(() -> getAll(keys), callback);
+            }
+            cached.put(key, value);
+        }
+
+        callback.accept(cached);
+        return -1;
+    }
+
+    /**
+     * Asynchronously load all the given keys into the cache, so later calls to {@link #get(Object)} don't
+     * need to wait on the database.
+     * @param keys The keys to load.
+     */
+    public void prefetchAsync(Collection<K> keys) {
+        prefetchAsync(keys, () -> {});
+    }
+
+    /**
+     * Asynchronously load all the given keys into the cache, so later calls to {@link #get(Object)} don't
+     * need to wait on the database.
+     * @param keys The keys to load.
+     * @param callback A callback to run on the main thread once all keys are loaded.
+     */
+    public void prefetchAsync(Collection<K> keys, Runnable callback) {
+        plugin.logFailure(getAllFuture(keys).thenRunAsync(callback, plugin.getMainThreadExecutor()), "prefetching data");
+    }
+
+    /**
+     * Get values for all the given keys on the plugin's async executor, or immediately if all are cached.
+     * Use {@link WbsPlugin#onMainThread(CompletableFuture)} to handle the result on the main thread.
+     * @param keys The keys to retrieve by.
+     * @return A future completed with a map of each key to its value.
+     */
+    public CompletableFuture<Map<K, T>> getAllFuture(Collection<K> keys) {
+        Map<K, T> cached = new LinkedHashMap<>();
+        for (K key : keys) {
+            T value = cache.peek(key);
+            if (value == null) {
+                List<K> keyList = new ArrayList<>(keys);
+                return plugin.supplyAsync(() -> getAll(keyList));
+            }
+            cached.put(key, value);
+        }
+
+        return CompletableFuture.completedFuture(cached);
     }
 
     /**
@@ -166,7 +237,7 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      */
     @Nullable
     public T getCached(K key) {
-        return getCache().get(key);
+        return cache.getIfPresent(key);
     }
 
     /**
@@ -178,20 +249,37 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      * accept it in the callback.
      */
     public int getAsync(K key, @NotNull Consumer<T> callback) {
-        Map<K, T> mergedCache = getCache();
-        if (mergedCache.containsKey(key)) {
-            callback.accept(mergedCache.get(key));
+        T cached = cache.peek(key);
+        if (cached != null) {
+            callback.accept(cached);
             return -1;
         }
 
         return plugin.getAsync(() -> get(key), callback);
     }
 
+    /**
+     * Get a record on the plugin's async executor, or immediately if the value is cached.
+     * Use {@link WbsPlugin#onMainThread(CompletableFuture)} to handle the result on the main thread.
+     * @param key The key to retrieve by.
+     * @return A future completed with the value, or a new value based on the key.
+     */
+    public CompletableFuture<T> getFuture(K key) {
+        T cached = cache.peek(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return plugin.supplyAsync(() -> get(key));
+    }
+
     /**
      * Write all cached values to the database
      */
     public void saveCacheAsync() {
-        saveAsync(new LinkedList<>(cache.values()));
+        Map<K, T> mergedCache = getCache();
+        if (!mergedCache.isEmpty())
+            saveAsync(new LinkedList<>(mergedCache.values()));
     }
 
     /**
@@ -218,7 +306,17 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      * @param callback A callback to run once the operation is complete.
      */
     public void saveAsync(Collection<T> toInsert, Runnable callback) {
-        plugin.runAsync(() -> save(toInsert), callback);
+        plugin.logFailure(saveFuture(toInsert).thenRunAsync(callback, plugin.getMainThreadExecutor()), "saving data");
+    }
+
+    /**
+     * Write a collection of objects to the database on the plugin's async executor.
+     * @param toInsert The objects to insert.
+     * @return A future completed once the operation is complete.
+     */
+    public CompletableFuture<Void> saveFuture(Collection<T> toInsert) {
+        List<T> toSave = new ArrayList<>(toInsert);
+        return plugin.runAsyncFuture(() -> save(toSave));
     }
 
     /**
@@ -226,12 +324,142 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
      * @param toInsert The records to save to the database.
      */
     public void save(Collection<T> toInsert) {
-        if (toInsert.isEmpty()) return;
+        trySave(toInsert);
+    }
+
+    /**
+     * Save the given collection of {@link T} to the database synchronously, reporting whether it succeeded.
+     * Used by {@link #save(Collection)} and dirty flushes, so managers that write elsewhere should
+     * override this rather than {@link #save(Collection)}.
+     * @param toInsert The records to save to the database.
+     * @return True if every record was written, or there was nothing to write.
+     */
+    protected boolean trySave(Collection<T> toInsert) {
+        if (toInsert.isEmpty()) return true;
         List<WbsRecord> records =
                 toInsert.stream()
                         .map(RecordProducer::toRecord)
                         .collect(Collectors.toList());
-        defaultTable.upsert(records);
+        return defaultTable.upsert(records);
+    }
+
+    /**
+     * Marks the cached value for the given key as changed, so it will be written by the next
+     * dirty flush. Does nothing if the key is not cached.
+     * @param key The key of the changed value.
+     * @return True if the value was cached and marked dirty.
+     */
+    public boolean markDirty(K key) {
+        T value = cache.peek(key);
+        if (value == null) return false;
+
+        markDirty(key, value);
+        return true;
+    }
+
+    /**
+     * Marks the given value as changed, so it will be written by the next dirty flush. Marking
+     * the same key multiple times before a flush only writes it once. Dirty values are held until flushed,
+     * even if evicted from the cache.
+     * @param key The key of the changed value.
+     * @param value The changed value.
+     */
+    public void markDirty(K key, @NotNull T value) {
+        dirty.put(key, value);
+    }
+
+    /**
+     * @return The number of values waiting to be written by a dirty flush.
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Synchronously writes all values marked dirty since the last flush. If the write fails, the values
+     * remain dirty for the next flush.
+     * @return The number of values written.
+     */
+    public int flushDirty() {
+        synchronized (flushLock) {
+            if (dirty.isEmpty()) return 0;
+
+            Map<K, T> taken = new LinkedHashMap<>();
+            // Remove each key as it's taken, so any value marked dirty during the save is kept for the next flush.
+            for (K key : new ArrayList<>(dirty.keySet())) {
+                T value = dirty.remove(key);
+                if (value != null) {
+                    taken.put(key, value);
+                }
+            }
+
+            boolean saved;
+            try {
+                saved = trySave(taken.values());
+            } catch (RuntimeException e) {
+                restoreDirty(taken);
+                throw e;
+            }
+
+            if (!saved) {
+                restoreDirty(taken);
+                plugin.getLogger().warning("Failed to write " + taken.size() + " changed values; they will be retried on the next flush.");
+                return 0;
+            }
+
+            return taken.size();
+        }
+    }
+
+    /**
+     * Marks values from a failed flush dirty again, unless they've been marked dirty with a newer value since.
+     */
+    private void restoreDirty(Map<K, T> failed) {
+        failed.forEach(dirty::putIfAbsent);
+    }
+
+    /**
+     * Asynchronously writes all values marked dirty since the last flush.
+     * @return A future completed with the number of values written.
+     */
+    public CompletableFuture<Integer> flushDirtyAsync() {
+        return plugin.supplyAsync(this::flushDirty);
+    }
+
+    /**
+     * Starts periodically writing values marked dirty on an asynchronous task, replacing any
+     * existing write-behind task. {@link #disableWriteBehind()} should be called when the plugin is
+     * disabled to write any remaining changes.
+     * @param interval How often to write dirty values.
+     * @param unit The unit of the given interval.
+     */
+    public void enableWriteBehind(long interval, TimeUnit unit) {
+        long ticks = Math.max(1, unit.toMillis(interval) / 50);
+
+        cancelWriteBehindTask();
+        writeBehindTaskId = plugin.runTimer(runnable -> plugin.logFailure(flushDirtyAsync(), "writing changed data"), ticks, ticks);
+    }
+
+    /**
+     * Stops the write-behind task if running, and synchronously writes any remaining dirty values.
+     */
+    public void disableWriteBehind() {
+        cancelWriteBehindTask();
+        flushDirty();
+    }
+
+    /**
+     * @return Whether dirty values are currently being written periodically.
+     */
+    public boolean isWriteBehindEnabled() {
+        return writeBehindTaskId != -1;
+    }
+
+    private void cancelWriteBehindTask() {
+        if (writeBehindTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(writeBehindTaskId);
+            writeBehindTaskId = -1;
+        }
     }
 
     /**
@@ -250,6 +478,48 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
         }
     }
 
+    /**
+     * Overrideable field for selecting many keys from the database at once. Managers that override
+     * {@link #select(List)} should override this too.<p>
+     * By default, when the default table has a single primary key, this reads from it using chunked
+     * {@code IN (...)} queries. Otherwise, each key is selected individually through {@link #select(List)}.
+     * @param keys The keys to select.
+     * @return A map of each key found to its record. Keys with no record are absent.
+     */
+    @NotNull
+    protected Map<K, WbsRecord> selectAll(Collection<K> keys) {
+        Map<K, WbsRecord> found = new HashMap<>();
+        List<WbsField> primaryKeys = defaultTable.getPrimaryKeys();
+
+        if (primaryKeys.size() != 1) {
+            for (K key : keys) {
+                WbsRecord record = select(Collections.singletonList(key));
+                if (record != null) {
+                    found.put(key, record);
+                }
+            }
+            return found;
+        }
+
+        WbsField primaryKey = primaryKeys.get(0);
+
+        // Values read back from the database may not be the key's type (such as a UUID stored as text, or a
+        // long read as an integer), so match on their string forms.
+        Map<String, K> keysByValue = new HashMap<>();
+        for (K key : keys) {
+            keysByValue.put(String.valueOf(key), key);
+        }
+
+        for (WbsRecord record : defaultTable.selectOnFieldIn(primaryKey, keys)) {
+            K key = keysByValue.get(String.valueOf(record.getValue(primaryKey)));
+            if (key != null) {
+                found.putIfAbsent(key, record);
+            }
+        }
+
+        return found;
+    }
+
     /**
      * Create an object based on the record representing it.
      * @param record The record to be read into a new object
@@ -287,6 +557,15 @@ public abstract class AbstractDataManager<T extends RecordProducer, K> {
         /**
          * Represents no caching.
          */
-        DISABLED
+        DISABLED;
+
+        @Nullable
+        <V> Reference<V> createReference(V value) {
+            return switch (this) {
+                case SOFT -> new SoftReference<>(value);
+                case WEAK -> new WeakReference<>(value);
+                case DISABLED -> null;
+            };
+        }
     }
 }
@@ -0,0 +1,28 @@
+package wbs.utils.util.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Supplies connections to a {@link WbsDatabase}. Connections returned are always closed by the caller
+ * once finished with, so implementations that reuse connections must return a connection that releases
+ * itself back to the provider on {@link Connection#close()} rather than closing the underlying connection.
+ */
+@FunctionalInterface
+public interface ConnectionProvider {
+
+    /**
+     * @return An open connection to the database.
+     * @throws SQLException If a connection could not be opened or acquired.
+     */
+    @NotNull
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Closes any connections held by this provider. Connections that are currently in use should be
+     * closed once released.
+     */
+    default void close() {}
+}
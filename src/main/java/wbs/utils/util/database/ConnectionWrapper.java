@@ -1,5 +1,6 @@
 package wbs.utils.util.database;
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import wbs.utils.util.plugin.WbsPlugin;
 
@@ -8,13 +9,18 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * Wraps a connection to an SQL database.
+ * Wraps a connection to an SQL database, retrieving connections from a {@link ConnectionProvider}.
+ * By default, a new connection is opened for every request.
  */
 @SuppressWarnings("unused")
 public class ConnectionWrapper {
 
     private final WbsPlugin plugin;
     private final WbsDatabase database;
+    @NotNull
+    private ConnectionProvider provider;
+    // Only the default provider opens the database file itself, so only it needs the data folder to exist
+    private boolean usesDefaultProvider = true;
 
     /**
      * Creates a connection wrapper related to the given Wbs wrappers.
@@ -24,6 +30,32 @@ public class ConnectionWrapper {
     public ConnectionWrapper(WbsPlugin plugin, WbsDatabase database) {
         this.plugin = plugin;
         this.database = database;
+        this.provider = () -> DriverManager.getConnection(database.getDatabasePath());
+    }
+
+    /**
+     * Sets the provider to retrieve connections from, closing the previous provider.<p>
+     * The plugin's data folder is no longer created when connections are requested, so providers that
+     * open files inside it should ensure it exists themselves.
+     * @param provider The new connection provider.
+     */
+    public void setProvider(@NotNull ConnectionProvider provider) {
+        ConnectionProvider previous = this.provider;
+        this.provider = provider;
+        usesDefaultProvider = false;
+        previous.close();
+    }
+
+    @NotNull
+    public ConnectionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Closes the current provider, releasing any connections it holds.
+     */
+    public void close() {
+        provider.close();
     }
 
     /**
@@ -31,10 +63,12 @@ public class ConnectionWrapper {
      */
     @Nullable
     public Connection getConnection() {
-        database.ensureFolderExists();
+        if (usesDefaultProvider) {
+            database.ensureFolderExists();
+        }
 
         try {
-            return DriverManager.getConnection(database.getDatabasePath());
+            return provider.getConnection();
         } catch (SQLException dbException) {
             plugin.getLogger().info("Database failed to connect.");
             dbException.printStackTrace();
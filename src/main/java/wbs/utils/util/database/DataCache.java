@@ -0,0 +1,462 @@
+package wbs.utils.util.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache used by {@link AbstractDataManager}, holding a bounded number of values strongly
+ * in access order, backed by an optional volatile tier of {@link Reference}s to every value cached.<p>
+ * Values are evicted from the strong tier when it exceeds its maximum size (least recently accessed first),
+ * or when they haven't been accessed within the expiry time, if one is set. Evicted values remain
+ * retrievable from the volatile tier until they are garbage collected.<p>
+ * Concurrent loads of the same key through {@link #get(Object, Function)} are deduplicated, so the loader
+ * runs once and all callers receive the same value.
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+@SuppressWarnings("unused")
+public class DataCache<K, V> {
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<K, Entry<V>> strongCache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Reference<V>> volatileCache = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final Function<V, @Nullable Reference<V>> referenceFactory;
+
+    private int maximumSize;
+    private long expireAfterAccessNanos = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    /**
+     * @param maximumSize The number of values to hold strongly.
+     * @param referenceFactory Creates a reference to store a value in the volatile tier, or returns null to
+     *                         only use the strong tier.
+     */
+    public DataCache(int maximumSize, @NotNull Function<V, @Nullable Reference<V>> referenceFactory) {
+        this.maximumSize = maximumSize;
+        this.referenceFactory = referenceFactory;
+    }
+
+    /**
+     * Gets a value if it's cached, recording a hit or miss.
+     * @param key The key to retrieve by.
+     * @return The cached value, or null if none is cached.
+     */
+    @Nullable
+    public V getIfPresent(K key) {
+        V value = peek(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Gets a value if it's cached, without affecting statistics.
+     * @param key The key to retrieve by.
+     * @return The cached value, or null if none is cached.
+     */
+    @Nullable
+    public V peek(K key) {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            Entry<V> entry = strongCache.get(key);
+            if (entry != null) {
+                if (!isExpired(entry, now)) {
+                    entry.lastAccess = now;
+                    return entry.value;
+                }
+
+                strongCache.remove(key);
+                evictions.increment();
+            }
+        }
+
+        Reference<V> reference = volatileCache.get(key);
+        if (reference != null) {
+            V value = reference.get();
+            if (value == null) {
+                volatileCache.remove(key, reference);
+            } else {
+                // Recently used again, so promote it back to the strong tier.
+                putStrong(key, value, now);
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets a cached value, or loads and caches it if absent. If another thread is already loading the same
+     * key, this waits for that load instead of loading again.
+     * @param key The key to retrieve by.
+     * @param loader The function to load the value if not cached.
+     * @return The cached or loaded value.
+     */
+    @NotNull
+    public V get(K key, @NotNull Function<K, @NotNull V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            // Another load may have finished between the miss and claiming the load.
+            value = peek(key);
+            if (value == null) {
+                long start = System.nanoTime();
+                try {
+                    value = loader.apply(key);
+                } catch (RuntimeException e) {
+                    loadFailures.increment();
+                    throw e;
+                }
+                totalLoadNanos.add(System.nanoTime() - start);
+                loads.increment();
+
+                put(key, value);
+            }
+
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Gets cached values for all the given keys, loading any that are absent together. Keys already being
+     * loaded by another thread are waited on rather than loaded again, and other loads of the keys being
+     * loaded here wait for this load, so only one value is ever cached per key.
+     * @param keys The keys to retrieve by.
+     * @param loader The function to load values for the keys that aren't cached, which must return a value
+     *               for every key it's given.
+     * @return A map of each key to its cached or loaded value, in the order of the given keys.
+     */
+    @NotNull
+    public Map<K, V> getAll(@NotNull Collection<K> keys, @NotNull Function<List<K>, Map<K, @NotNull V>> loader) {
+        Map<K, V> found = new HashMap<>();
+        Map<K, CompletableFuture<V>> claimed = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> waiting = new HashMap<>();
+
+        for (K key : keys) {
+            if (found.containsKey(key) || claimed.containsKey(key) || waiting.containsKey(key)) {
+                continue;
+            }
+
+            V value = getIfPresent(key);
+            if (value != null) {
+                found.put(key, value);
+                continue;
+            }
+
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+            if (existing != null) {
+                waiting.put(key, existing);
+                continue;
+            }
+
+            // Another load may have finished between the miss and claiming the load.
+            value = peek(key);
+            if (value != null) {
+                future.complete(value);
+                loading.remove(key, future);
+                found.put(key, value);
+            } else {
+                claimed.put(key, future);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            try {
+                long start = System.nanoTime();
+                Map<K, V> loaded;
+                try {
+                    loaded = loader.apply(new ArrayList<>(claimed.keySet()));
+                } catch (RuntimeException e) {
+                    loadFailures.add(claimed.size());
+                    throw e;
+                }
+                totalLoadNanos.add(System.nanoTime() - start);
+                loads.add(claimed.size());
+
+                claimed.forEach((key, future) -> {
+                    V value = loaded.get(key);
+                    if (value == null) {
+                        throw new IllegalStateException("Bulk loader returned no value for key " + key);
+                    }
+
+                    put(key, value);
+                    future.complete(value);
+                    found.put(key, value);
+                });
+            } catch (RuntimeException e) {
+                claimed.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                claimed.forEach(loading::remove);
+            }
+        }
+
+        waiting.forEach((key, future) -> {
+            try {
+                found.put(key, future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        });
+
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            ordered.put(key, found.get(key));
+        }
+        return ordered;
+    }
+
+    /**
+     * Adds a value to the cache, replacing any existing value.
+     * @param key The key for the cache entry.
+     * @param value The value to cache.
+     */
+    public void put(K key, @NotNull V value) {
+        putStrong(key, value, System.nanoTime());
+
+        Reference<V> reference = referenceFactory.apply(value);
+        if (reference != null) {
+            volatileCache.put(key, reference);
+        }
+    }
+
+    private void putStrong(K key, V value, long now) {
+        synchronized (lock) {
+            Entry<V> entry = strongCache.get(key);
+            if (entry != null && entry.value == value) {
+                entry.lastAccess = now;
+            } else {
+                strongCache.put(key, new Entry<>(value, now));
+            }
+            evictExcess(now);
+        }
+    }
+
+    /**
+     * Removes a value from the cache.
+     * @param key The key to remove.
+     * @return The value that was cached, or null if none was cached.
+     */
+    @Nullable
+    public V remove(K key) {
+        Entry<V> entry;
+        synchronized (lock) {
+            entry = strongCache.remove(key);
+        }
+        Reference<V> reference = volatileCache.remove(key);
+
+        if (entry != null) {
+            return entry.value;
+        }
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Clears the cache.
+     * @return The number of values cached prior to being cleared.
+     */
+    public int clear() {
+        int size = asMap().size();
+        synchronized (lock) {
+            strongCache.clear();
+        }
+        volatileCache.clear();
+        return size;
+    }
+
+    /**
+     * @return The number of values held strongly.
+     */
+    public int size() {
+        synchronized (lock) {
+            return strongCache.size();
+        }
+    }
+
+    /**
+     * Gets a snapshot of all values retrievable from the cache, including those only held by the volatile tier.
+     * @return A new map containing all cached values.
+     */
+    public Map<K, V> asMap() {
+        Map<K, V> snapshot = new HashMap<>();
+        long now = System.nanoTime();
+        synchronized (lock) {
+            strongCache.forEach((key, entry) -> {
+                if (!isExpired(entry, now)) {
+                    snapshot.put(key, entry.value);
+                }
+            });
+        }
+
+        volatileCache.entrySet().removeIf(volatileEntry -> {
+            V value = volatileEntry.getValue().get();
+            if (value == null) {
+                return true;
+            }
+            snapshot.putIfAbsent(volatileEntry.getKey(), value);
+            return false;
+        });
+
+        return snapshot;
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return expireAfterAccessNanos > 0 && now - entry.lastAccess > expireAfterAccessNanos;
+    }
+
+    // Must be called while holding the lock
+    private void evictExcess(long now) {
+        Iterator<Entry<V>> iterator = strongCache.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> eldest = iterator.next();
+            if (strongCache.size() > maximumSize || isExpired(eldest, now)) {
+                iterator.remove();
+                evictions.increment();
+            } else {
+                // Access ordered, so no further entries can be expired either
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sets the number of values held strongly, evicting the least recently accessed values if
+     * the cache currently holds more.
+     * @param maximumSize The new maximum size.
+     */
+    public void setMaximumSize(int maximumSize) {
+        synchronized (lock) {
+            this.maximumSize = maximumSize;
+            evictExcess(System.nanoTime());
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Sets how long a value may go without being accessed before it's evicted from the strong tier.
+     * @param duration The expiry time, or 0 to disable time-based eviction.
+     * @param unit The unit of the given duration.
+     */
+    public void setExpireAfterAccess(long duration, @NotNull TimeUnit unit) {
+        synchronized (lock) {
+            expireAfterAccessNanos = unit.toNanos(duration);
+            evictExcess(System.nanoTime());
+        }
+    }
+
+    public long getExpireAfterAccess(@NotNull TimeUnit unit) {
+        return unit.convert(expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return A snapshot of this cache's statistics since creation or the last reset.
+     */
+    @NotNull
+    public Stats getStats() {
+        return new Stats(
+                hits.sum(),
+                misses.sum(),
+                evictions.sum(),
+                loads.sum(),
+                loadFailures.sum(),
+                totalLoadNanos.sum()
+        );
+    }
+
+    /**
+     * Resets all statistics to zero.
+     */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        loads.reset();
+        loadFailures.reset();
+        totalLoadNanos.reset();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private long lastAccess;
+
+        private Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * A snapshot of cache statistics.
+     * @param hits The number of lookups that found a cached value.
+     * @param misses The number of lookups that found no cached value.
+     * @param evictions The number of values evicted from the strong tier due to size or expiry.
+     * @param loads The number of values successfully loaded on a miss.
+     * @param loadFailures The number of loads that threw an exception.
+     * @param totalLoadNanos The total time spent in successful loads, in nanoseconds.
+     */
+    public record Stats(long hits, long misses, long evictions, long loads, long loadFailures, long totalLoadNanos) {
+        /**
+         * @return The proportion of lookups that were hits, or 1 if no lookups were made.
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1 : (double) hits / requests;
+        }
+
+        /**
+         * @return The average time taken by a successful load, in milliseconds.
+         */
+        public double averageLoadMillis() {
+            return loads == 0 ? 0 : totalLoadNanos / (loads * 1_000_000.0);
+        }
+    }
+}
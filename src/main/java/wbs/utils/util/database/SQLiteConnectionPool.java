@@ -0,0 +1,474 @@
+package wbs.utils.util.database;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of long-lived SQLite connections, avoiding the cost of opening the database file
+ * and configuring it for every query.<p>
+ * Each connection is opened in WAL mode (by default), allowing readers to run alongside the single
+ * writer SQLite permits at a time, and is configured with the given {@code synchronous}, {@code cache_size}
+ * and {@code busy_timeout} pragmas. Prepared statements are cached per connection by their SQL, so
+ * repeated queries skip statement compilation.<p>
+ * Connections returned by {@link #getConnection()} are returned to the pool when closed, and any
+ * transaction left open is rolled back at that point.<p>
+ * Settings should be configured before the pool is first used, as they only apply to connections
+ * opened afterwards.
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class SQLiteConnectionPool implements ConnectionProvider {
+
+    private final String url;
+
+    private int maxConnections = 4;
+    private long acquireTimeoutMillis = 10000;
+    private boolean walMode = true;
+    private SynchronousMode synchronousMode = SynchronousMode.NORMAL;
+    private int cacheSizeKib = 8192;
+    private int busyTimeoutMillis = 5000;
+    private int statementCacheSize = 32;
+
+    private BlockingQueue<PooledConnection> idle;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    /**
+     * @param url The JDBC url of the database, such as {@link WbsDatabase#getDatabasePath()}.
+     */
+    public SQLiteConnectionPool(@NotNull String url) {
+        this.url = url;
+        idle = new ArrayBlockingQueue<>(maxConnections);
+    }
+
+    @Override
+    @NotNull
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been closed.");
+        }
+
+        PooledConnection pooled = idle.poll();
+
+        if (pooled == null) {
+            if (reserveConnection()) {
+                try {
+                    pooled = open();
+                } catch (SQLException e) {
+                    openConnections.decrementAndGet();
+                    throw e;
+                }
+            } else {
+                try {
+                    pooled = idle.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a pooled connection.", e);
+                }
+
+                if (pooled == null) {
+                    throw new SQLException("Timed out after " + acquireTimeoutMillis + "ms waiting for a pooled connection.");
+                }
+            }
+        }
+
+        return pooled.lease();
+    }
+
+    private boolean reserveConnection() {
+        while (true) {
+            int current = openConnections.get();
+            if (current >= maxConnections) {
+                return false;
+            }
+            if (openConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+
+        try (Statement statement = connection.createStatement()) {
+            if (walMode) {
+                statement.execute("PRAGMA journal_mode = WAL");
+            }
+            statement.execute("PRAGMA synchronous = " + synchronousMode.name());
+            // Negative values are interpreted by SQLite as KiB rather than pages
+            statement.execute("PRAGMA cache_size = " + (-cacheSizeKib));
+            statement.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        return new PooledConnection(connection);
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean healthy = pooled.reset();
+
+        if (!healthy || closed || !idle.offer(pooled)) {
+            pooled.discard();
+            openConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Closes all idle connections, and prevents new connections from being acquired.
+     * Connections currently in use are closed when released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        PooledConnection pooled;
+        while ((pooled = idle.poll()) != null) {
+            pooled.discard();
+            openConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return The number of connections currently open, whether idle or in use.
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * @return The number of open connections not currently in use.
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * @param maxConnections The maximum number of connections open at once. Callers will wait up
+     *                       to the acquire timeout for a connection once this many are in use.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setMaxConnections(int maxConnections) {
+        if (maxConnections < 1) throw new IllegalArgumentException("Pool must allow at least one connection.");
+
+        this.maxConnections = maxConnections;
+
+        BlockingQueue<PooledConnection> newIdle = new ArrayBlockingQueue<>(maxConnections);
+        idle.drainTo(newIdle, maxConnections);
+        PooledConnection excess;
+        while ((excess = idle.poll()) != null) {
+            excess.discard();
+            openConnections.decrementAndGet();
+        }
+        idle = newIdle;
+        return this;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @param acquireTimeoutMillis How long to wait for a connection to become available when the pool
+     *                             is at capacity before failing.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setAcquireTimeout(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        return this;
+    }
+
+    public long getAcquireTimeout() {
+        return acquireTimeoutMillis;
+    }
+
+    /**
+     * @param walMode Whether to use write-ahead logging, allowing reads to run concurrently with a write.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setWalMode(boolean walMode) {
+        this.walMode = walMode;
+        return this;
+    }
+
+    public boolean isWalMode() {
+        return walMode;
+    }
+
+    /**
+     * @param synchronousMode The value of the {@code synchronous} pragma to use on each connection.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setSynchronousMode(@NotNull SynchronousMode synchronousMode) {
+        this.synchronousMode = synchronousMode;
+        return this;
+    }
+
+    public SynchronousMode getSynchronousMode() {
+        return synchronousMode;
+    }
+
+    /**
+     * @param cacheSizeKib The size of SQLite's page cache for each connection, in KiB.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setCacheSize(int cacheSizeKib) {
+        this.cacheSizeKib = cacheSizeKib;
+        return this;
+    }
+
+    public int getCacheSize() {
+        return cacheSizeKib;
+    }
+
+    /**
+     * @param busyTimeoutMillis How long SQLite should wait on a locked database before failing a statement.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setBusyTimeout(int busyTimeoutMillis) {
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        return this;
+    }
+
+    public int getBusyTimeout() {
+        return busyTimeoutMillis;
+    }
+
+    /**
+     * @param statementCacheSize The number of prepared statements to keep per connection, or 0 to disable
+     *                           statement caching.
+     * @return The same pool.
+     */
+    public SQLiteConnectionPool setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+        return this;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * The values of SQLite's {@code synchronous} pragma.
+     */
+    public enum SynchronousMode {
+        OFF,
+        NORMAL,
+        FULL,
+        EXTRA
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection connection;
+        private final Map<String, CachedStatement> statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    CachedStatement evicted = eldest.getValue();
+                    if (evicted.inUse) {
+                        // Still held by the current lease; close it when the connection is released instead.
+                        uncached.add(evicted.statement);
+                    } else {
+                        evicted.discard();
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+        private final List<PreparedStatement> uncached = new LinkedList<>();
+
+        private Connection leased;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        private Connection lease() {
+            LeaseHandler handler = new LeaseHandler(this);
+            leased = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    handler
+            );
+            return leased;
+        }
+
+        private PreparedStatement prepare(String sql) throws SQLException {
+            if (statementCacheSize <= 0) {
+                return connection.prepareStatement(sql);
+            }
+
+            CachedStatement cached = statementCache.get(sql);
+            if (cached != null && cached.inUse) {
+                // Same query prepared twice within one lease; don't share the cached instance.
+                PreparedStatement statement = connection.prepareStatement(sql);
+                uncached.add(statement);
+                return statement;
+            }
+
+            if (cached == null || cached.statement.isClosed()) {
+                cached = new CachedStatement(connection.prepareStatement(sql));
+                statementCache.put(sql, cached);
+            }
+
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        /**
+         * @return Whether the connection is still usable.
+         */
+        private boolean reset() {
+            leased = null;
+            try {
+                for (PreparedStatement statement : uncached) {
+                    statement.close();
+                }
+                uncached.clear();
+
+                for (CachedStatement cached : statementCache.values()) {
+                    cached.reset();
+                }
+
+                if (connection.isClosed()) {
+                    return false;
+                }
+
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void discard() {
+            for (CachedStatement cached : statementCache.values()) {
+                cached.discard();
+            }
+            statementCache.clear();
+            try {
+                connection.close();
+            } catch (SQLException ignored) {}
+        }
+
+        private class CachedStatement implements InvocationHandler {
+            private final PreparedStatement statement;
+            private final PreparedStatement proxy;
+            private boolean inUse = false;
+
+            private CachedStatement(PreparedStatement statement) {
+                this.statement = statement;
+                proxy = (PreparedStatement) Proxy.newProxyInstance(
+                        PreparedStatement.class.getClassLoader(),
+                        new Class<?>[] { PreparedStatement.class },
+                        this
+                );
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        reset();
+                        return null;
+                    case "isClosed":
+                        return !inUse || statement.isClosed();
+                    case "getConnection":
+                        return leased;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Cached" + statement;
+                }
+
+                if (!inUse) {
+                    throw new SQLException("Statement has been closed.");
+                }
+
+                return SQLiteConnectionPool.invoke(statement, method, args);
+            }
+
+            private void reset() throws SQLException {
+                if (!inUse) return;
+                inUse = false;
+                if (!statement.isClosed()) {
+                    statement.clearParameters();
+                    statement.clearBatch();
+                }
+            }
+
+            private void discard() {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {}
+            }
+        }
+    }
+
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean released = false;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.connection;
+            }
+
+            if (released) {
+                throw new SQLException("Connection has been returned to the pool.");
+            }
+
+            if (method.getName().equals("prepareStatement") && args != null && args.length == 1) {
+                return pooled.prepare((String) args[0]);
+            }
+
+            return SQLiteConnectionPool.invoke(pooled.connection, method, args);
+        }
+    }
+}
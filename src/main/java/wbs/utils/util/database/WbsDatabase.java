@@ -14,6 +14,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @SuppressWarnings("unused")
 public class WbsDatabase {
@@ -137,19 +139,13 @@ public class WbsDatabase {
     @NotNull
     public List<WbsRecord> select(PreparedStatement query) throws WbsDatabaseException {
         List<WbsRecord> records = new ArrayList<>();
-        try (Connection connection = connectionWrapper.getConnection()) {
-            if (connection == null) {
-                return records;
-            }
-
-            ResultSet set = query.executeQuery();
-
+        // The statement is already bound to its own connection, so there's no need to acquire another here.
+        try (ResultSet set = query.executeQuery()) {
             while (set.next()) {
                 WbsRecord foundRecord = new WbsRecord(this, set);
                 records.add(foundRecord);
             }
 
-            set.close();
             return records;
         } catch (SQLException e) {
             plugin.getLogger().severe("Selection failed: " + query);
@@ -214,6 +210,61 @@ public class WbsDatabase {
         return connectionWrapper.getConnection();
     }
 
+    /**
+     * Sets the provider used to retrieve connections for all operations on this database,
+     * closing the previous provider.
+     * @param provider The new connection provider.
+     */
+    public void setConnectionProvider(@NotNull ConnectionProvider provider) {
+        connectionWrapper.setProvider(provider);
+    }
+
+    @NotNull
+    public ConnectionProvider getConnectionProvider() {
+        return connectionWrapper.getProvider();
+    }
+
+    /**
+     * Switches this database to use a {@link SQLiteConnectionPool} with default settings, keeping
+     * connections open between operations instead of reopening the database file each time.
+     * @return The pool now in use, which may be further configured before use.
+     */
+    public SQLiteConnectionPool usePooledConnections() {
+        ensureFolderExists();
+        SQLiteConnectionPool pool = new SQLiteConnectionPool(getDatabasePath());
+        setConnectionProvider(pool);
+        return pool;
+    }
+
+    /**
+     * Closes the connection provider, releasing any connections it holds open. Should be called
+     * when the plugin is disabled if a pooled provider is in use.
+     */
+    public void close() {
+        connectionWrapper.close();
+    }
+
+    /**
+     * Runs database work on the plugin's {@link WbsPlugin#getAsyncExecutor() async executor}, rather than
+     * the shared Bukkit async pool.
+     * @param supplier The database work to run.
+     * @return A future completed with the result of the work.
+     * @param <T> The type of result.
+     */
+    public <T> CompletableFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+        return plugin.supplyAsync(supplier);
+    }
+
+    /**
+     * Runs database work on the plugin's {@link WbsPlugin#getAsyncExecutor() async executor}, rather than
+     * the shared Bukkit async pool.
+     * @param runnable The database work to run.
+     * @return A future completed once the work is done.
+     */
+    public CompletableFuture<Void> runAsync(@NotNull Runnable runnable) {
+        return plugin.runAsyncFuture(runnable);
+    }
+
     public WbsPlugin getPlugin() {
         return plugin;
     }
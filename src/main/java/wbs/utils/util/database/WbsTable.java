@@ -12,6 +12,16 @@ import java.util.stream.Collectors;
 @SuppressWarnings("unused")
 public class WbsTable {
 
+    /**
+     * The maximum number of parameters bound in a single statement. SQLite builds prior to 3.32
+     * default to this limit, so it's used regardless of the bundled version.
+     */
+    private static final int MAX_PARAMETERS = 999;
+    /**
+     * The number of records to add to a JDBC batch before executing it.
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final List<WbsField> fields = new ArrayList<>();
     private final String tableName;
     private final WbsDatabase database;
@@ -189,6 +199,84 @@ public class WbsTable {
         return query;
     }
 
+    /**
+     * Gets a statement that inserts the given number of rows, updating non-key fields of any existing
+     * row with a conflicting primary key.
+     * @param amount The number of rows to insert.
+     * @return The upsert statement.
+     */
+    public String getUpsertStatement(int amount) {
+        if (amount < 1) throw new IllegalArgumentException("Amount to upsert must be positive.");
+
+        String query = getInsertStatement(amount);
+
+        query += " ON CONFLICT (";
+        query += fields.stream()
+                .filter(WbsField::isPrimaryKey)
+                .map(WbsField::getFieldName)
+                .collect(Collectors.joining(", "));
+        query += ") ";
+
+        String updates = fields.stream()
+                .filter(field -> !field.isPrimaryKey())
+                .map(field -> field.getFieldName() + " = excluded." + field.getFieldName())
+                .collect(Collectors.joining(", "));
+
+        if (updates.isEmpty()) {
+            query += "DO NOTHING";
+        } else {
+            query += "DO UPDATE SET " + updates;
+        }
+
+        return query;
+    }
+
+    /**
+     * @return The number of rows that can be written in a single multi-row statement without
+     * exceeding SQLite's parameter limit.
+     */
+    private int getRowsPerStatement() {
+        return Math.max(1, MAX_PARAMETERS / Math.max(1, fields.size()));
+    }
+
+    /**
+     * Gets the first field that's required for the given record, but that isn't set and doesn't
+     * have a default.
+     * @param record The record to check.
+     * @return The missing field, or null if the record can be written.
+     */
+    @Nullable
+    private WbsField getMissingField(WbsRecord record) {
+        for (WbsField field : fields) {
+            if (!record.hasValue(field) && field.requiresNotNull() && field.getDefaultValue() == null) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets a parameter for each field on this table from the given record, starting at the given index.
+     * @param statement The statement to populate.
+     * @param index The parameter index of the first field.
+     * @param record The record to read values from.
+     * @return The parameter index following the last field populated.
+     */
+    private int prepareRecord(PreparedStatement statement, int index, WbsRecord record) throws SQLException {
+        for (WbsField field : fields) {
+            boolean fieldMissing = !record.hasValue(field) && field.requiresNotNull();
+
+            if (fieldMissing) {
+                field.prepare(statement, index, field.getDefaultValue());
+            } else {
+                field.prepare(statement, index, record.getValue(field));
+            }
+
+            index++;
+        }
+        return index;
+    }
+
     public String getUpdateStatement(@NotNull String whereClaus) {
         String query = "UPDATE " + tableName + " SET ";
 
@@ -275,110 +363,145 @@ public class WbsTable {
     }
 
     /**
-     * Inserts the given map of objects.
-     * @param records The record to insert, with all fields populated.
-     * @return True if the upsert was successful, false if any key was missing or no records were provided
+     * Selects all records where the given field matches any of the given values, using chunked
+     * {@code IN (...)} queries on a single connection.
+     * @param field The field to match against.
+     * @param matches The values to match.
+     * @return All records found, in no particular order.
      */
-    public boolean upsert(List<WbsRecord> records) {
-        if (records.isEmpty()) return false;
+    @NotNull
+    public List<WbsRecord> selectOnFieldIn(@NotNull WbsField field, @NotNull Collection<?> matches) {
+        List<WbsRecord> records = new ArrayList<>();
+        if (matches.isEmpty()) return records;
 
-        String keyQuery = getPrimaryKeyQuery();
+        List<?> matchList = new ArrayList<>(matches);
 
-        String whereClause = "(" +
-                records.stream()
-                        .map(record -> keyQuery)
-                        .collect(Collectors.joining(") OR ("))
-                + ")";
+        try (Connection connection = database.getConnection()) {
+            if (connection == null) return records;
 
-        String query = getSelectQuery(whereClause);
+            for (int chunkStart = 0; chunkStart < matchList.size(); chunkStart += MAX_PARAMETERS) {
+                List<?> chunk = matchList.subList(chunkStart, Math.min(chunkStart + MAX_PARAMETERS, matchList.size()));
 
-        try (Connection connection = database.getConnection();
-             PreparedStatement statement = connection.prepareStatement(query))
-        {
+                String whereClause = field.getFieldName() + " IN (" +
+                        chunk.stream().map(match -> "?").collect(Collectors.joining(", ")) +
+                        ")";
 
-            int paramIndex = 1;
-            for (WbsRecord record : records) {
-                for (WbsField primaryKey : getPrimaryKeys()) {
-                    statement.setObject(paramIndex, record.getValue(primaryKey));
-                    paramIndex++;
+                try (PreparedStatement statement = connection.prepareStatement(getSelectQuery(whereClause))) {
+                    int i = 1;
+                    for (Object match : chunk) {
+                        statement.setObject(i, match);
+                        i++;
+                    }
+
+                    if (debugMode) {
+                        database.getPlugin().getLogger().info("selectOnFieldIn: " + statement);
+                    }
+
+                    records.addAll(database.select(statement));
                 }
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
 
-            if (debugMode) {
-                database.getPlugin().getLogger().info("upsert (insert/update sort): " + statement);
-            }
+        return records;
+    }
 
-            ResultSet set = statement.executeQuery();
+    /**
+     * Inserts the given records, updating any existing rows with matching primary keys.
+     * @param records The records to upsert, with all fields populated.
+     * @return True if the upsert was successful, false if any key was missing or no records were provided
+     */
+    public boolean upsert(List<WbsRecord> records) {
+        if (records.isEmpty()) return false;
 
-            List<WbsRecord> update = new LinkedList<>();
-            List<WbsRecord> insert = new LinkedList<>();
+        try (Connection connection = database.getConnection()) {
+            if (connection == null) return false;
 
-            while (set.next()) {
-                ResultSetMetaData metaData = set.getMetaData();
+            return upsert(records, connection);
+        } catch (SQLException e) {
+            database.getPlugin().getLogger().info("Failed to upsert; connection error.");
+            e.printStackTrace();
+        } catch (WbsDatabaseException e) {
+            Logger logger = database.getPlugin().getLogger();
+            e.forEach((sqlEx, exceptionQuery) -> {
+                logger.info("Failed to upsert. Query: " + exceptionQuery);
+                sqlEx.printStackTrace();
+            });
+        }
+        return false;
+    }
 
-                Map<WbsField, Object> keyValues = new HashMap<>();
-                for (int i = 1; i < metaData.getColumnCount() + 1; i++) {
-                    String tableName = metaData.getTableName(i);
-                    String fieldName = metaData.getColumnName(i).split(":")[0];
+    /**
+     * Inserts the given records, updating any existing rows with matching primary keys, using SQLite's
+     * native {@code INSERT ... ON CONFLICT DO UPDATE}. Records are written in chunks of multi-row inserts
+     * within a single transaction, unless the given connection is already in a transaction.
+     * The given connection is not closed, allowing for batching.
+     * @param records The records to upsert, with all fields populated.
+     * @param connection The connection to use for all queries performed.
+     * @return True if the upsert was successful, false if any record was missing a required field (in which
+     * case all other records are still written) or no records were provided.
+     */
+    public boolean upsert(List<WbsRecord> records, Connection connection) throws WbsDatabaseException {
+        if (records.isEmpty()) return false;
 
-                    WbsField field = database.getField(tableName, fieldName);
+        List<WbsRecord> valid = new ArrayList<>(records.size());
+        for (WbsRecord record : records) {
+            WbsField missing = getMissingField(record);
+            if (missing != null) {
+                database.getPlugin().getLogger().info("Missing required field: " + missing.getFieldName());
+            } else {
+                valid.add(record);
+            }
+        }
 
-                    if (field == null) {
-                        throw new WbsDatabaseException("WbsField not defined on table \"" + tableName + "\" for field \"" + fieldName + "\"");
-                    }
+        if (valid.isEmpty()) return false;
 
-                    if (field.isPrimaryKey()) {
-                        keyValues.put(field, set.getObject(i));
-                    }
-                }
+        int chunkSize = getRowsPerStatement();
+        String query = null;
+        try {
+            boolean startedTransaction = connection.getAutoCommit();
+            if (startedTransaction) {
+                connection.setAutoCommit(false);
+            }
 
-                WbsRecord match = null;
+            try {
+                for (int chunkStart = 0; chunkStart < valid.size(); chunkStart += chunkSize) {
+                    List<WbsRecord> chunk = valid.subList(chunkStart, Math.min(chunkStart + chunkSize, valid.size()));
+                    query = getUpsertStatement(chunk.size());
+
+                    try (PreparedStatement statement = connection.prepareStatement(query)) {
+                        int index = 1;
+                        for (WbsRecord record : chunk) {
+                            index = prepareRecord(statement, index, record);
+                        }
 
-                recordIter: for (WbsRecord record : records) {
-                    for (WbsField primaryKey : getPrimaryKeys()) {
-                        if (!Objects.equals(record.getValue(primaryKey), keyValues.get(primaryKey))) {
-                            continue recordIter;
+                        if (debugMode) {
+                            database.getPlugin().getLogger().info("upsert: " + statement);
                         }
-                    }
 
-                    match = record;
-                    break;
+                        statement.executeUpdate();
+                    }
                 }
 
-                if (match == null) {
-                    throw new WbsDatabaseException("Record outside provided set matched in primary key selection.");
+                if (startedTransaction) {
+                    connection.commit();
                 }
-
-                update.add(match);
-            }
-
-            for (WbsRecord record : records) {
-                if (!update.contains(record)) {
-                    insert.add(record);
+            } catch (SQLException e) {
+                if (startedTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (startedTransaction) {
+                    connection.setAutoCommit(true);
                 }
             }
-
-            boolean updateSucceeded = true;
-            if (!update.isEmpty()) {
-                updateSucceeded = update(update, connection, getPrimaryKeyQuery());
-            }
-
-            boolean insertSucceeded = true;
-            if (!insert.isEmpty()) {
-                insertSucceeded = insert(insert, connection);
-            }
-
-            return updateSucceeded && insertSucceeded;
         } catch (SQLException e) {
-            e.printStackTrace();
-        } catch (WbsDatabaseException e) {
-            Logger logger = database.getPlugin().logger;
-            e.forEach((sqlEx, exceptionQuery) -> {
-                logger.info("Failed to upsert. Query: " + exceptionQuery);
-                sqlEx.printStackTrace();
-            });
+            throw new WbsDatabaseException(e, query == null ? "upsert" : query);
         }
-        return false;
+
+        return valid.size() == records.size();
     }
 
     /**
@@ -404,15 +527,29 @@ public class WbsTable {
         return false;
     }
 
+    /**
+     * Inserts the given records, using a single prepared statement executed in batches within one
+     * transaction (unless the given connection is already in a transaction). The given connection is
+     * not closed, allowing for batching.
+     * @param records The records to insert, with all fields populated.
+     * @param connection The connection to use for all queries performed.
+     * @return True if the insert was successful, false if any record was missing a required field (in which
+     * case all other records are still written) or no records were provided.
+     * @throws WbsDatabaseException If any record failed to insert, with an entry for each failure.
+     */
     public boolean insert(List<WbsRecord> records, Connection connection) throws WbsDatabaseException {
         if (records.isEmpty()) return false;
 
-        String query = getInsertStatement(records.size());
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
-            return runWithRecord(records, statement);
-        } catch (SQLException e) {
-            throw new WbsDatabaseException(e, query);
-        }
+        return executeBatched(records, connection, getInsertStatement(), (statement, record) -> {
+            WbsField missing = getMissingField(record);
+            if (missing != null) {
+                database.getPlugin().getLogger().info("Missing required field: " + missing.getFieldName());
+                return false;
+            }
+
+            prepareRecord(statement, 1, record);
+            return true;
+        });
     }
 
     public boolean update(List<WbsRecord> records) {
@@ -447,32 +584,30 @@ public class WbsTable {
 
     /**
      * Updates the given list of records using the provided whereClause. The given connection is not closed,
-     * allowing for batching.
+     * allowing for batching.<p>
+     * The update statement is prepared once and executed in batches within a single transaction, unless the
+     * given connection is already in a transaction.
      * @param records The records to update, with all fields populated.
      * @param connection The connection to use for all queries performed.
      * @param whereClause The where condition to update on, with fields populated for each record individually,
      *                    in the same order as the fields are declared on the table. To use complex conditions
      *                    that use fields in another order, or more than once, perform a direct query.
      * @return True if the update was successful, false if any key was missing or no records were provided.
+     * @throws WbsDatabaseException If any record failed to update, with an entry for each failure.
      */
     public boolean update(List<WbsRecord> records, Connection connection, String whereClause) throws WbsDatabaseException {
         if (records.isEmpty()) return false;
-        WbsDatabaseException finalException = new WbsDatabaseException();
-
-        boolean allSucceeded = true;
-        for (WbsRecord record : records) {
-            try {
-                allSucceeded &= update(record, connection, whereClause);
-            } catch (WbsDatabaseException e) {
-                e.forEach(finalException::addQueryException);
-            }
-        }
 
-        if (!finalException.getQueryExceptions().isEmpty()) {
-            throw finalException;
+        String query = getUpdateStatement(whereClause);
+        int parameterCount;
+        try {
+            parameterCount = countParameters(connection, query);
+        } catch (SQLException e) {
+            throw new WbsDatabaseException(e, query);
         }
 
-        return allSucceeded;
+        return executeBatched(records, connection, query,
+                (statement, record) -> prepareUpdate(statement, parameterCount, record));
     }
 
     /**
@@ -489,28 +624,8 @@ public class WbsTable {
         String query = getUpdateStatement(whereClause);
 
         try (PreparedStatement statement = connection.prepareStatement(query)) {
-            int index = 1;
-            ParameterMetaData metaData = statement.getParameterMetaData();
-
-            while (index <= metaData.getParameterCount()) {
-                for (WbsField field : fields) {
-                    if (index > metaData.getParameterCount()) break;
-                    boolean hasDefault = field.getDefaultValue() != null;
-                    boolean fieldMissing = !record.hasValue(field) && field.requiresNotNull();
-
-                    if (fieldMissing) {
-                        if (hasDefault) {
-                            field.prepare(statement, index, field.getDefaultValue());
-                        } else {
-                            database.getPlugin().getLogger().info("Missing required field: " + field.getFieldName());
-                            return false;
-                        }
-                    } else {
-                        field.prepare(statement, index, record.getValue(field));
-                    }
-
-                    index++;
-                }
+            if (!prepareUpdate(statement, statement.getParameterMetaData().getParameterCount(), record)) {
+                return false;
             }
 
             if (debugMode) {
@@ -524,22 +639,26 @@ public class WbsTable {
         }
     }
 
-    private boolean runWithRecord(List<WbsRecord> records, PreparedStatement statement) throws SQLException {
-        // Prepared statements aren't zero-indexed; they start at 1
-        int index = 1;
+    private int countParameters(Connection connection, String query) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            return statement.getParameterMetaData().getParameterCount();
+        }
+    }
 
-        ParameterMetaData metaData = statement.getParameterMetaData();
+    /**
+     * Populates an update statement from a record, filling the set clause and then the where clause by
+     * cycling through this table's fields in declaration order.
+     * @return False if the record was missing a required field.
+     */
+    private boolean prepareUpdate(PreparedStatement statement, int parameterCount, WbsRecord record) throws SQLException {
+        int index = 1;
 
-        int recordIndex = 0;
-        while (index <= metaData.getParameterCount() && recordIndex < records.size()) {
-            WbsRecord record = records.get(recordIndex);
+        while (index <= parameterCount) {
             for (WbsField field : fields) {
-                if (index > metaData.getParameterCount()) {
-                    break;
-                }
-
+                if (index > parameterCount) break;
                 boolean hasDefault = field.getDefaultValue() != null;
                 boolean fieldMissing = !record.hasValue(field) && field.requiresNotNull();
+
                 if (fieldMissing) {
                     if (hasDefault) {
                         field.prepare(statement, index, field.getDefaultValue());
@@ -553,15 +672,117 @@ public class WbsTable {
 
                 index++;
             }
-            recordIndex++;
         }
 
+        return true;
+    }
+
+    /**
+     * Runs a single-record statement for each of the given records, adding them to a batch and executing
+     * every {@link #BATCH_SIZE} records. If the connection isn't already in a transaction, all batches are run in
+     * one transaction, which is committed even if individual records fail.<p>
+     * When a batch fails, it's rolled back to a savepoint and its records are retried individually, so
+     * that every failing record is reported and every other record is still written.
+     * @param records The records to write.
+     * @param connection The connection to prepare the statement on.
+     * @param query The statement to prepare once and run for each record.
+     * @param binder Populates the statement for a record, returning false if the record should be skipped.
+     * @return True if no records were skipped.
+     * @throws WbsDatabaseException If any record failed, with an entry for each failure.
+     */
+    private boolean executeBatched(List<WbsRecord> records, Connection connection, String query, RecordBinder binder) throws WbsDatabaseException {
+        WbsDatabaseException finalException = new WbsDatabaseException();
+        boolean allSucceeded = true;
+
+        try {
+            boolean startedTransaction = connection.getAutoCommit();
+            if (startedTransaction) {
+                connection.setAutoCommit(false);
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                List<WbsRecord> pending = new ArrayList<>(Math.min(records.size(), BATCH_SIZE));
+
+                for (WbsRecord record : records) {
+                    if (!binder.bind(statement, record)) {
+                        allSucceeded = false;
+                        statement.clearParameters();
+                        continue;
+                    }
+
+                    statement.addBatch();
+                    pending.add(record);
+
+                    if (pending.size() >= BATCH_SIZE) {
+                        executeBatch(connection, statement, pending, query, binder, finalException);
+                        pending.clear();
+                    }
+                }
+
+                if (!pending.isEmpty()) {
+                    executeBatch(connection, statement, pending, query, binder, finalException);
+                }
+
+                if (startedTransaction) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                if (startedTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (startedTransaction) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            finalException.addQueryException(e, query);
+        }
+
+        if (!finalException.getQueryExceptions().isEmpty()) {
+            throw finalException;
+        }
+
+        return allSucceeded;
+    }
+
+    private void executeBatch(Connection connection,
+                              PreparedStatement statement,
+                              List<WbsRecord> batch,
+                              String query,
+                              RecordBinder binder,
+                              WbsDatabaseException finalException) throws SQLException {
         if (debugMode) {
-            database.getPlugin().getLogger().info("runWithRecord: " + statement);
+            database.getPlugin().getLogger().info("batch (" + batch.size() + "): " + query);
         }
 
-        statement.executeUpdate();
-        return true;
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            statement.executeBatch();
+        } catch (SQLException e) {
+            // Drivers differ in whether earlier records in the batch were applied, and sqlite-jdbc neither
+            // throws a BatchUpdateException nor reports which record failed. Undo the batch and replay it
+            // record by record instead, so only the failing records are lost.
+            statement.clearBatch();
+            connection.rollback(savepoint);
+
+            for (WbsRecord record : batch) {
+                try {
+                    binder.bind(statement, record);
+                    statement.executeUpdate();
+                } catch (SQLException recordException) {
+                    finalException.addQueryException(recordException, query);
+                }
+            }
+        } finally {
+            connection.releaseSavepoint(savepoint);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordBinder {
+        boolean bind(PreparedStatement statement, WbsRecord record) throws SQLException;
     }
 
     public String getName() {
@@ -0,0 +1,277 @@
+package wbs.utils.util.entities;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import wbs.utils.WbsUtils;
+
+import java.util.*;
+
+/**
+ * Indexes online players by the chunk section they're in, per world, so player-only queries don't need
+ * to scan every entity in range.<p>
+ * The index is kept up to date by {@link PlayerSpatialIndexListener} on move, teleport, world change,
+ * respawn and quit, and resynced periodically to catch movement that fires no event. Queries always
+ * check players' current locations, so the index only narrows which players are checked.<p>
+ * Queries made off the main thread, or before the index is started, fall back to checking every
+ * player in the world.
+ */
+@SuppressWarnings("unused")
+public final class PlayerSpatialIndex {
+    private PlayerSpatialIndex() {}
+
+    private static final long RESYNC_INTERVAL = 20;
+    // How far a player's bounding box may extend from their location and still be found by overlap
+    // queries, matching the margin the server uses when looking up entities by bounding box
+    private static final double BOUNDING_BOX_MARGIN = 2;
+
+    private static final Map<UUID, WorldGrid> GRIDS = new HashMap<>();
+    private static final Map<UUID, IndexedPlayer> INDEXED = new HashMap<>();
+    private static boolean tracking = false;
+
+    /**
+     * Starts tracking players, indexing everyone currently online.
+     */
+    public static void start() {
+        if (tracking) {
+            return;
+        }
+
+        tracking = true;
+        resync();
+        WbsUtils.getInstance().runTimer(runnable -> {
+            if (!tracking) {
+                runnable.cancel();
+                return;
+            }
+            resync();
+        }, RESYNC_INTERVAL, RESYNC_INTERVAL);
+    }
+
+    /**
+     * Stops tracking players and clears the index.
+     */
+    public static void stop() {
+        tracking = false;
+        GRIDS.clear();
+        INDEXED.clear();
+    }
+
+    /**
+     * @return Whether the index is being maintained, and will be used by queries on the main thread.
+     */
+    public static boolean isTracking() {
+        return tracking;
+    }
+
+    private static void resync() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            update(player, player.getLocation());
+        }
+    }
+
+    /**
+     * Moves a player to the section containing the given location, if they're not already indexed there.
+     * @param player The player to update.
+     * @param location The player's new location.
+     */
+    static void update(@NotNull Player player, @NotNull Location location) {
+        if (!tracking) {
+            return;
+        }
+
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        UUID worldId = world.getUID();
+        long section = sectionKey(location.getBlockX() >> 4, location.getBlockY() >> 4, location.getBlockZ() >> 4);
+
+        IndexedPlayer indexed = INDEXED.get(player.getUniqueId());
+        if (indexed != null) {
+            if (indexed.section == section && indexed.worldId.equals(worldId)) {
+                return;
+            }
+            GRIDS.get(indexed.worldId).remove(player, indexed.section);
+        } else {
+            indexed = new IndexedPlayer();
+            INDEXED.put(player.getUniqueId(), indexed);
+        }
+
+        indexed.worldId = worldId;
+        indexed.section = section;
+        GRIDS.computeIfAbsent(worldId, id -> new WorldGrid()).add(player, section);
+    }
+
+    /**
+     * Removes a player from the index.
+     * @param player The player to remove.
+     */
+    static void remove(@NotNull Player player) {
+        IndexedPlayer indexed = INDEXED.remove(player.getUniqueId());
+        if (indexed != null) {
+            GRIDS.get(indexed.worldId).remove(player, indexed.section);
+        }
+    }
+
+    /**
+     * Gets all players whose location, at their feet, is within a cuboid radius of a given location.
+     * Use {@link #getOverlapping(World, BoundingBox)} to match on bounding boxes instead.
+     * @param loc The center of the selection.
+     * @param range The max distance along each axis from the location.
+     * @return The players within range.
+     */
+    @NotNull
+    public static List<Player> getNearby(@NotNull Location loc, double range) {
+        World world = loc.getWorld();
+        if (world == null) throw new IllegalArgumentException("Location had an invalid world.");
+
+        return getInBox(world,
+                loc.getX() - range, loc.getY() - range, loc.getZ() - range,
+                loc.getX() + range, loc.getY() + range, loc.getZ() + range
+        );
+    }
+
+    /**
+     * Gets all players whose location is within a spherical radius of a given location.
+     * @param loc The center of the selection.
+     * @param radius The max distance from the location.
+     * @return The players within range.
+     */
+    @NotNull
+    public static List<Player> getNearbySpherical(@NotNull Location loc, double radius) {
+        List<Player> players = getNearby(loc, radius);
+
+        double radiusSquared = radius * radius;
+        Location location = new Location(loc.getWorld(), 0, 0, 0);
+        players.removeIf(player -> player.getLocation(location).distanceSquared(loc) > radiusSquared);
+
+        return players;
+    }
+
+    /**
+     * Gets all players in a world whose location is within the given bounds.
+     * @return The players within the bounds.
+     */
+    @NotNull
+    public static List<Player> getInBox(@NotNull World world,
+                                        double minX, double minY, double minZ,
+                                        double maxX, double maxY, double maxZ) {
+        List<Player> players = new ArrayList<>();
+
+        Location location = new Location(world, 0, 0, 0);
+        for (Player player : getCandidates(world, minX, minY, minZ, maxX, maxY, maxZ)) {
+            player.getLocation(location);
+            if (location.getX() >= minX && location.getX() <= maxX
+                    && location.getY() >= minY && location.getY() <= maxY
+                    && location.getZ() >= minZ && location.getZ() <= maxZ) {
+                players.add(player);
+            }
+        }
+
+        return players;
+    }
+
+    /**
+     * Gets all players in a world whose bounding box overlaps the given box, matching
+     * {@link World#getNearbyEntities(BoundingBox)}.
+     * @param world The world to search in.
+     * @param box The box to check for overlap with.
+     * @return The players overlapping the box.
+     */
+    @NotNull
+    public static List<Player> getOverlapping(@NotNull World world, @NotNull BoundingBox box) {
+        List<Player> players = new ArrayList<>();
+
+        Collection<Player> candidates = getCandidates(world,
+                box.getMinX() - BOUNDING_BOX_MARGIN, box.getMinY() - BOUNDING_BOX_MARGIN, box.getMinZ() - BOUNDING_BOX_MARGIN,
+                box.getMaxX() + BOUNDING_BOX_MARGIN, box.getMaxY() + BOUNDING_BOX_MARGIN, box.getMaxZ() + BOUNDING_BOX_MARGIN
+        );
+        for (Player player : candidates) {
+            if (player.getBoundingBox().overlaps(box)) {
+                players.add(player);
+            }
+        }
+
+        return players;
+    }
+
+    /**
+     * @return Every player that may be within the given bounds. Must only be iterated.
+     */
+    private static Collection<Player> getCandidates(World world,
+                                                    double minX, double minY, double minZ,
+                                                    double maxX, double maxY, double maxZ) {
+        if (!tracking || !Bukkit.isPrimaryThread()) {
+            return world.getPlayers();
+        }
+
+        WorldGrid grid = GRIDS.get(world.getUID());
+        if (grid == null || grid.players.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int minSectionX = (int) Math.floor(minX) >> 4;
+        int minSectionY = (int) Math.floor(minY) >> 4;
+        int minSectionZ = (int) Math.floor(minZ) >> 4;
+        int maxSectionX = (int) Math.floor(maxX) >> 4;
+        int maxSectionY = (int) Math.floor(maxY) >> 4;
+        int maxSectionZ = (int) Math.floor(maxZ) >> 4;
+
+        // Checking every player is cheaper than looking up more sections than there are players
+        long sectionCount = (long) (maxSectionX - minSectionX + 1)
+                * (maxSectionY - minSectionY + 1)
+                * (maxSectionZ - minSectionZ + 1);
+        if (sectionCount >= grid.players.size()) {
+            return grid.players;
+        }
+
+        List<Player> candidates = new ArrayList<>();
+        for (int x = minSectionX; x <= maxSectionX; x++) {
+            for (int y = minSectionY; y <= maxSectionY; y++) {
+                for (int z = minSectionZ; z <= maxSectionZ; z++) {
+                    List<Player> inSection = grid.sections.get(sectionKey(x, y, z));
+                    if (inSection != null) {
+                        candidates.addAll(inSection);
+                    }
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        return ((long) sectionX & 0x3FFFFF) << 42 | ((long) sectionZ & 0x3FFFFF) << 20 | (sectionY & 0xFFFFF);
+    }
+
+    private static final class IndexedPlayer {
+        private UUID worldId;
+        private long section;
+    }
+
+    private static final class WorldGrid {
+        private final Map<Long, List<Player>> sections = new HashMap<>();
+        private final List<Player> players = new ArrayList<>();
+
+        private void add(Player player, long section) {
+            sections.computeIfAbsent(section, key -> new ArrayList<>(2)).add(player);
+            players.add(player);
+        }
+
+        private void remove(Player player, long section) {
+            List<Player> inSection = sections.get(section);
+            if (inSection != null) {
+                inSection.remove(player);
+                if (inSection.isEmpty()) {
+                    sections.remove(section);
+                }
+            }
+            players.remove(player);
+        }
+    }
+}
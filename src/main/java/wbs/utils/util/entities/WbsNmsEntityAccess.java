@@ -0,0 +1,92 @@
+package wbs.utils.util.entities;
+
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Direct access to server entity internals that the API doesn't expose, resolved once into cached
+ * {@link MethodHandle}s so each call is a plain invocation rather than a reflective lookup.
+ */
+@SuppressWarnings("unused")
+public final class WbsNmsEntityAccess {
+    private WbsNmsEntityAccess() {}
+
+    private static final String NMS_ENTITY_CLASS = "net.minecraft.world.entity.Entity";
+
+    /**
+     * The {@code getHandle} method for each implementation class, adapted to {@code (Entity)Object}.
+     */
+    private static final ClassValue<MethodHandle> GET_HANDLE = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(@NotNull Class<?> type) {
+            try {
+                Method getHandle = type.getMethod("getHandle");
+                return MethodHandles.publicLookup()
+                        .unreflect(getHandle)
+                        .asType(MethodType.methodType(Object.class, Entity.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("Failed to resolve getHandle for " + type.getName(), e);
+            }
+        }
+    };
+
+    private static volatile MethodHandle setPosRaw;
+
+    private static MethodHandle getSetPosRaw() {
+        MethodHandle handle = setPosRaw;
+        if (handle == null) {
+            try {
+                Class<?> nmsEntity = Class.forName(NMS_ENTITY_CLASS);
+                handle = MethodHandles.publicLookup()
+                        .findVirtual(nmsEntity, "setPosRaw",
+                                MethodType.methodType(void.class, double.class, double.class, double.class, boolean.class))
+                        .asType(MethodType.methodType(void.class, Object.class, double.class, double.class, double.class, boolean.class));
+            } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException("Failed to resolve " + NMS_ENTITY_CLASS + "#setPosRaw", e);
+            }
+            setPosRaw = handle;
+        }
+        return handle;
+    }
+
+    /**
+     * Gets the server's internal entity for the given API entity.
+     * @param entity The entity to get the handle of.
+     * @return The internal entity.
+     */
+    @NotNull
+    public static Object getHandle(@NotNull Entity entity) {
+        try {
+            return GET_HANDLE.get(entity.getClass()).invoke(entity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sets the given entity's internal position directly, without teleporting it. Intended for
+     * entities whose movement is sent to viewers with packets.
+     * @param entity The entity to move.
+     * @param x The new x coordinate.
+     * @param y The new y coordinate.
+     * @param z The new z coordinate.
+     */
+    public static void setPosRaw(@NotNull Entity entity, double x, double y, double z) {
+        MethodHandle setPosRaw = getSetPosRaw();
+        Object handle = getHandle(entity);
+        try {
+            setPosRaw.invoke(handle, x, y, z, false);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -36,6 +36,14 @@ public class MenuSlot {
 
     protected boolean fillPlaceholders;
 
+    // The item last formatted without placeholders, and the result, reused until the item or the plugin's
+    // displays change
+    @Nullable
+    private ItemStack formattedSource;
+    @Nullable
+    private ItemStack formattedItem;
+    private int formattedDisplaysVersion;
+
     protected final WbsPlugin plugin;
 
     public MenuSlot(@NotNull WbsPlugin plugin,
@@ -106,6 +114,26 @@ public class MenuSlot {
      * @return A cloned item formatted for display to a player
      */
     public ItemStack getFormattedItem(@Nullable Player player) {
+        boolean usePlaceholders = fillPlaceholders && player != null;
+        if (!usePlaceholders
+                && formattedItem != null
+                && formattedDisplaysVersion == plugin.getDisplaysVersion()
+                && item.equals(formattedSource)) {
+            return formattedItem.clone();
+        }
+
+        ItemStack formatted = format(player);
+
+        if (!usePlaceholders) {
+            formattedSource = item.clone();
+            formattedItem = formatted.clone();
+            formattedDisplaysVersion = plugin.getDisplaysVersion();
+        }
+
+        return formatted;
+    }
+
+    private ItemStack format(@Nullable Player player) {
         ItemStack formattedItem = item.clone();
 
         ItemMeta meta = Objects.requireNonNull(formattedItem.getItemMeta());
@@ -127,6 +155,24 @@ public class MenuSlot {
         return formattedItem;
     }
 
+    /**
+     * Discards the cached formatted item, so the next call to {@link #getFormattedItem(Player)} formats
+     * the item again.
+     */
+    protected void invalidateFormattedItem() {
+        formattedSource = null;
+        formattedItem = null;
+    }
+
+    /**
+     * Formats a line of the item's name or lore for display.<p>
+     * The result without placeholders is cached until the item or the plugin's displays change, so
+     * overrides whose output depends on other state must call {@link #invalidateFormattedItem()} when
+     * that state changes.
+     * @param player The player to fill in placeholders for, or null if none should be filled.
+     * @param string The string to format.
+     * @return The formatted string.
+     */
     protected String formatString(@Nullable Player player, String string) {
         if (fillPlaceholders && player != null) {
             string = PlaceholderAPIWrapper.setPlaceholders(player, string);
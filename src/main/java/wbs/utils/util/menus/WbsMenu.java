@@ -12,19 +12,22 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.plugin.PluginManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import wbs.utils.util.WbsMath;
 import wbs.utils.util.plugin.WbsPlugin;
 import wbs.utils.util.string.WbsStrings;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
+/**
+ * An inventory menu made of {@link MenuSlot}s. Events are delivered to registered menus by a single
+ * shared listener, so menus don't need to be registered as listeners themselves.<p>
+ * Menus still implement {@link Listener} for compatibility with plugins that register them directly.
+ * Events received that way are ignored, as the shared listener already delivers them.
+ */
 @SuppressWarnings("unused")
 public class WbsMenu implements Listener, InventoryHolder {
 
@@ -34,6 +37,8 @@ public class WbsMenu implements Listener, InventoryHolder {
     private final String titleString;
 
     private final Map<Integer, MenuSlot> slots = new HashMap<>();
+    // Players viewing this menu, with the items last sent to each, by slot number
+    private final Map<Player, ItemStack[]> viewers = new HashMap<>();
 
     private boolean isRegistered = false;
     private boolean unregisterOnClose = false;
@@ -73,11 +78,8 @@ public class WbsMenu implements Listener, InventoryHolder {
             return;
         }
 
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (hasMenuOpen(player)) {
-                player.getOpenInventory().setItem(slot, menuSlot.getFormattedItem(player));
-            }
-        }
+        removeStaleViewers();
+        viewers.forEach((player, sent) -> updateSlot(player, sent, slot, menuSlot));
     }
 
     public void update(int row, int column) {
@@ -89,18 +91,39 @@ public class WbsMenu implements Listener, InventoryHolder {
      * this menu
      */
     public void update() {
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (hasMenuOpen(player)) {
-                for (int i = 0; i < getMaxSlot(); i++) {
-                    MenuSlot menuSlot = slots.get(i);
-                    if (menuSlot == null) {
-                        continue;
-                    }
+        removeStaleViewers();
+        viewers.forEach((player, sent) ->
+                slots.forEach((slot, menuSlot) -> updateSlot(player, sent, slot, menuSlot))
+        );
+    }
 
-                    player.getOpenInventory().setItem(i, menuSlot.getFormattedItem(player));
-                }
-            }
+    /**
+     * Sends the given slot to a viewer if its formatted item differs from the one last sent to them.
+     */
+    private void updateSlot(Player player, ItemStack[] sent, int slot, MenuSlot menuSlot) {
+        ItemStack formattedItem = menuSlot.getFormattedItem(player);
+
+        // Items that can be taken may have changed in the inventory since they were sent
+        if (!menuSlot.allowItemTaking() && formattedItem.equals(sent[slot])) {
+            return;
         }
+
+        player.getOpenInventory().getTopInventory().setItem(slot, formattedItem);
+        sent[slot] = formattedItem;
+    }
+
+    /**
+     * Stops tracking any viewers that no longer have this menu open, such as if a close event was missed.
+     */
+    private void removeStaleViewers() {
+        viewers.keySet().removeIf(player -> !player.isOnline() || !hasMenuOpen(player));
+    }
+
+    /**
+     * @return An unmodifiable view of the players currently viewing this menu.
+     */
+    public Set<Player> getViewers() {
+        return Collections.unmodifiableSet(viewers.keySet());
     }
 
     private boolean unregister(Player cause) {
@@ -108,11 +131,12 @@ public class WbsMenu implements Listener, InventoryHolder {
         if (!isRegistered) {
             return false;
         }
-        InventoryClickEvent.getHandlerList().unregister(this);
-        InventoryCloseEvent.getHandlerList().unregister(this);
+
+        // Stop dispatching first, so closing the menu for viewers doesn't run close actions
+        isRegistered = false;
 
         boolean wasOpen = false;
-        for (Player player : Bukkit.getOnlinePlayers()) {
+        for (Player player : new ArrayList<>(viewers.keySet())) {
             if (player == cause) continue;
 
             if (hasMenuOpen(player)) {
@@ -121,7 +145,7 @@ public class WbsMenu implements Listener, InventoryHolder {
             }
         }
 
-        isRegistered = false;
+        viewers.clear();
 
         return wasOpen;
     }
@@ -142,8 +166,7 @@ public class WbsMenu implements Listener, InventoryHolder {
     public void register() {
         debug("Registering " + titleString);
         if (!isRegistered) {
-            PluginManager pm = Bukkit.getPluginManager();
-            pm.registerEvents(this, plugin);
+            WbsMenuDispatcher.ensureRegistered();
 
             debug("Registered!");
             isRegistered = true;
@@ -174,13 +197,14 @@ public class WbsMenu implements Listener, InventoryHolder {
         this.unregisterOnClose = unregisterOnClose;
     }
 
-    private Inventory buildInventory(Player player) {
-        Inventory inventory = Bukkit.createInventory(player, rows * 9, titleString);
+    private Inventory buildInventory(Player player, ItemStack[] sent) {
+        Inventory inventory = Bukkit.createInventory(this, rows * 9, titleString);
 
         slots.forEach((slotNumber, slot) -> {
             ItemStack formattedItem = slot.getFormattedItem(player);
 
             inventory.setItem(slotNumber, formattedItem);
+            sent[slotNumber] = formattedItem;
         });
 
         return inventory;
@@ -189,24 +213,48 @@ public class WbsMenu implements Listener, InventoryHolder {
     public void showTo(Player player) {
         register();
 
-        Inventory inventory = buildInventory(player);
+        ItemStack[] sent = new ItemStack[rows * 9];
+        Inventory inventory = buildInventory(player, sent);
 
         player.openInventory(inventory);
+
+        // Opening may have been cancelled
+        if (hasMenuOpen(player)) {
+            viewers.put(player, sent);
+        }
     }
 
     public boolean hasMenuOpen(Player player) {
-        return player.getOpenInventory().getTitle().equals(titleString);
+        return isMenu(player.getOpenInventory());
     }
 
     public boolean isMenu(InventoryView view) {
-
-        return view.getTitle().equals(titleString);
+        return view.getTopInventory().getHolder(false) == this;
     }
 
+    /**
+     * Passes a close event delivered by the menu dispatcher to {@link #handleClose(InventoryCloseEvent)}.
+     * @param event The close event.
+     * @deprecated Menus no longer need to be registered as listeners. Override
+     * {@link #handleClose(InventoryCloseEvent)} instead.
+     */
+    @Deprecated
     @EventHandler(priority = EventPriority.LOWEST)
     public void onClose(InventoryCloseEvent event) {
+        if (WbsMenuDispatcher.isDispatching(event)) {
+            handleClose(event);
+        }
+    }
+
+    /**
+     * Called by the menu dispatcher when a player closes this menu.
+     * @param event The close event.
+     */
+    protected void handleClose(InventoryCloseEvent event) {
         if (isMenu(event.getView())) {
             debug("Is menu!");
+            viewers.remove((Player) event.getPlayer());
+
             if (unregisterOnClose) unregister((Player) event.getPlayer());
 
             if (closeAction != null) {
@@ -227,8 +275,25 @@ public class WbsMenu implements Listener, InventoryHolder {
         this.closeActionMenu = closeActionMenu;
     }
 
+    /**
+     * Passes a click event delivered by the menu dispatcher to {@link #handleClick(InventoryClickEvent)}.
+     * @param event The click event.
+     * @deprecated Menus no longer need to be registered as listeners. Override
+     * {@link #handleClick(InventoryClickEvent)} instead.
+     */
+    @Deprecated
     @EventHandler(priority = EventPriority.LOWEST)
     public void onClick(InventoryClickEvent event) {
+        if (WbsMenuDispatcher.isDispatching(event)) {
+            handleClick(event);
+        }
+    }
+
+    /**
+     * Called by the menu dispatcher when a player clicks while this menu is open.
+     * @param event The click event.
+     */
+    protected void handleClick(InventoryClickEvent event) {
         HumanEntity whoClicked = event.getWhoClicked();
         if (isMenu(event.getView())) {
             debug(whoClicked, "Matched menu!");
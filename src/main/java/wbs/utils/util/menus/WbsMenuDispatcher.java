@@ -0,0 +1,90 @@
+package wbs.utils.util.menus;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.inventory.InventoryView;
+import org.jetbrains.annotations.Nullable;
+import wbs.utils.WbsUtils;
+
+/**
+ * A single listener that routes inventory events to the {@link WbsMenu} holding the open inventory,
+ * so each event costs the same regardless of how many menus exist.
+ */
+final class WbsMenuDispatcher implements Listener {
+
+    private static boolean isRegistered = false;
+    // The event being delivered to a menu, so menus also registered as listeners ignore Bukkit's own call
+    @Nullable
+    private static Event dispatching;
+
+    /**
+     * Registers the dispatcher if it hasn't been already.
+     */
+    static void ensureRegistered() {
+        if (!isRegistered) {
+            Bukkit.getPluginManager().registerEvents(new WbsMenuDispatcher(), WbsUtils.getInstance());
+            isRegistered = true;
+        }
+    }
+
+    private WbsMenuDispatcher() {}
+
+    /**
+     * Gets the menu shown in the given view, if it's still active.
+     * @param view The view to check.
+     * @return The registered menu holding the view's top inventory, or null if there isn't one.
+     */
+    @Nullable
+    static WbsMenu getMenu(InventoryView view) {
+        if (view.getTopInventory().getHolder(false) instanceof WbsMenu menu
+                && menu.isRegistered()
+                && menu.plugin.isEnabled()) {
+            return menu;
+        }
+
+        return null;
+    }
+
+    /**
+     * @param event The event to check.
+     * @return Whether the given event is being delivered to a menu by the dispatcher.
+     */
+    static boolean isDispatching(Event event) {
+        return dispatching == event;
+    }
+
+    // Menus may override the deprecated handlers, so they're still the entry point
+    @SuppressWarnings("deprecation")
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onClick(InventoryClickEvent event) {
+        WbsMenu menu = getMenu(event.getView());
+        if (menu != null) {
+            dispatch(event, () -> menu.onClick(event));
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onClose(InventoryCloseEvent event) {
+        WbsMenu menu = getMenu(event.getView());
+        if (menu != null) {
+            dispatch(event, () -> menu.onClose(event));
+        }
+    }
+
+    private static void dispatch(Event event, Runnable handler) {
+        // Handlers may close the inventory, delivering a close event within a click
+        Event previous = dispatching;
+        dispatching = event;
+        try {
+            handler.run();
+        } finally {
+            dispatching = previous;
+        }
+    }
+}
@@ -92,8 +92,15 @@ public class CuboidParticleEffect extends VelocityParticleEffect {
 
 	@Override
 	public CuboidParticleEffect build() {
-		points.clear();
 		refreshProviders();
+
+		Vector aboutVal = about.val();
+		if (!updateShapeInputs(amount.val(), x.val(), y.val(), z.val(), rotation.val(),
+				aboutVal.getX(), aboutVal.getY(), aboutVal.getZ(), scaleAmount ? 1 : 0)) {
+			return this;
+		}
+
+		points.clear();
 		/*
 		 *  Seed vertices: A+X+Y+Z, B+X-Y-Z, C-X+Y-Z, D-X-Y+Z
 		 *  These vertices do not connect to each other, so 4 vertices with 3 edges
@@ -1,6 +1,7 @@
 package wbs.utils.util.particles;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.util.Vector;
 import wbs.utils.util.WbsMath;
 import wbs.utils.util.plugin.WbsSettings;
 
@@ -39,10 +40,16 @@ public class DiscParticleEffect extends CircleParticleEffect {
 	
 	@Override
 	public DiscParticleEffect build() {
-		points.clear();
 		refreshProviders();
 
-		if (about.val().equals(upVector)) {
+		Vector aboutVal = about.val();
+		// Random discs are different every build
+		if (!random && !updateShapeInputs(amount.val(), radius.val(), rotation.val(), aboutVal.getX(), aboutVal.getY(), aboutVal.getZ())) {
+			return this;
+		}
+
+		points.clear();
+		if (aboutVal.equals(upVector)) {
 			if (random) {
 				points.addAll(WbsMath.getRandom2Disc(amount.intVal(), radius.val()));
 			} else {
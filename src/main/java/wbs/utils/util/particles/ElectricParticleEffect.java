@@ -1,13 +1,12 @@
 package wbs.utils.util.particles;
 
-import java.util.ArrayList;
-
 import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Vector;
 
 import org.jetbrains.annotations.Nullable;
 import wbs.utils.util.WbsMath;
@@ -152,29 +151,21 @@ public class ElectricParticleEffect extends WbsParticleEffect {
 		points.clear();
 		points.addAll(WbsMath.getLine((int) (10 * arcLength.val()), newEnd.clone().subtract(newPoint).toVector()));
 		
-		ArrayList<Location> locations = WbsMath.offsetPoints(newPoint, points);
-		locations = filterChances(locations);
+		ParticleBatch batch = startBatch(particle);
+		double speedVal = speed.val();
+		for (Vector point : points) {
+			if (chance < 100 && !WbsMath.chance(chance)) {
+				continue;
+			}
+
+			batch.add(newPoint.getX() + point.getX(), newPoint.getY() + point.getY(), newPoint.getZ() + point.getZ(), 1,
+					0, 0, 0, speedVal);
+		}
 
 		if (player == null) {
-			if (preventDataUse(particle)) {
-				for (Location point : locations) {
-					world.spawnParticle(particle, point, 1, 0, 0, 0, speed.val(), null, force);
-				}
-			} else {
-				for (Location point : locations) {
-					world.spawnParticle(particle, point, 1, 0, 0, 0, speed.val(), particle.getDataType().cast(data), force);
-				}
-			}
+			batch.send(world);
 		} else {
-			if (preventDataUse(particle)) {
-				for (Location point : locations) {
-					player.spawnParticle(particle, point, 1, 0, 0, 0, speed.val(), null);
-				}
-			} else {
-				for (Location point : locations) {
-					player.spawnParticle(particle, point, 1, 0, 0, 0, speed.val(), particle.getDataType().cast(data));
-				}
-			}
+			batch.send(player);
 		}
 	}
 
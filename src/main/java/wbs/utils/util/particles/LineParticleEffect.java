@@ -1,7 +1,5 @@
 package wbs.utils.util.particles;
 
-import java.util.ArrayList;
-
 import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.World;
@@ -157,18 +155,7 @@ public class LineParticleEffect extends WbsParticleEffect {
 			points.addAll(WbsMath.getLine(amount.intVal(), finish.clone().subtract(start).toVector()));
 		}
 
-		ArrayList<Location> locations = WbsMath.offsetPoints(start, points);
-		locations = filterChances(locations);
-
-		if (preventDataUse(particle)) {
-			for (Location point : locations) {
-				player.spawnParticle(particle, point, 1, radius.val(), radius.val(), radius.val(), speed.val(), null);
-			}
-		} else {
-			for (Location point : locations) {
-				player.spawnParticle(particle, point, 1, radius.val(), radius.val(), radius.val(), speed.val(), particle.getDataType().cast(data));
-			}
-		}
+		fillBatch(particle, start).send(player);
 		return this;
 	}
 
@@ -196,19 +183,25 @@ public class LineParticleEffect extends WbsParticleEffect {
 			points.addAll(WbsMath.getLine(amount.intVal(), finish.clone().subtract(start).toVector()));
 		}
 
-		ArrayList<Location> locations = WbsMath.offsetPoints(start, points);
-		locations = filterChances(locations);
-		
-		if (preventDataUse(particle)) {
-			for (Location point : locations) {
-				world.spawnParticle(particle, point, 1, radius.val(), radius.val(), radius.val(), speed.val(), null, force);
-			}
-		} else {
-			for (Location point : locations) {
-				world.spawnParticle(particle, point, 1, radius.val(), radius.val(), radius.val(), speed.val(), particle.getDataType().cast(data), force);
+		fillBatch(particle, start).send(world);
+		return this;
+	}
+
+	private ParticleBatch fillBatch(Particle particle, Location start) {
+		ParticleBatch batch = startBatch(particle);
+		double radiusVal = radius.val();
+		double speedVal = speed.val();
+
+		for (Vector point : points) {
+			if (chance < 100 && !WbsMath.chance(chance)) {
+				continue;
 			}
+
+			batch.add(start.getX() + point.getX(), start.getY() + point.getY(), start.getZ() + point.getZ(), 1,
+					radiusVal, radiusVal, radiusVal, speedVal);
 		}
-		return this;
+
+		return batch;
 	}
 
 	/*===============================*/
@@ -0,0 +1,361 @@
+package wbs.utils.util.particles;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wbs.utils.util.entities.PlayerSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects every particle spawned by a single effect play, so viewers can be resolved once for the
+ * whole effect and the particles sent to each viewer together by the active {@link ParticleSink}.<p>
+ * Batches may be reused by calling {@link #reset(Particle, Object, boolean)}, which keeps the
+ * underlying arrays allocated.
+ */
+@SuppressWarnings("unused")
+public class ParticleBatch {
+
+    /**
+     * The distance within which players receive particles that aren't forced, matching vanilla.
+     */
+    public static final double NORMAL_RANGE = 32;
+    /**
+     * The distance within which players receive forced particles, matching vanilla.
+     */
+    public static final double FORCE_RANGE = 512;
+
+    private static ParticleSink sink = ParticleSink.DEFAULT;
+
+    /**
+     * Sets the sink all batches are sent through, such as a recording sink for testing.
+     * @param sink The new sink, or null to restore the default.
+     */
+    public static void setSink(@Nullable ParticleSink sink) {
+        ParticleBatch.sink = sink == null ? ParticleSink.DEFAULT : sink;
+    }
+
+    @NotNull
+    public static ParticleSink getSink() {
+        return sink;
+    }
+
+    private Particle particle;
+    private Object data;
+    private boolean force;
+    @Nullable
+    private ParticleLod lod;
+    @Nullable
+    private ParticleBatch thinned;
+
+    private int size = 0;
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private double[] offsetX;
+    private double[] offsetY;
+    private double[] offsetZ;
+    private double[] speed;
+    private int[] count;
+
+    private double minX, minY, minZ, maxX, maxY, maxZ;
+
+    /**
+     * @param particle The particle type to send.
+     * @param data The particle data, already matching the particle's data type, or null.
+     * @param force Whether the particles should be sent to players at long range.
+     */
+    public ParticleBatch(@NotNull Particle particle, @Nullable Object data, boolean force) {
+        this(particle, data, force, 16);
+    }
+
+    /**
+     * @param particle The particle type to send.
+     * @param data The particle data, already matching the particle's data type, or null.
+     * @param force Whether the particles should be sent to players at long range.
+     * @param initialCapacity The number of particles expected.
+     */
+    public ParticleBatch(@NotNull Particle particle, @Nullable Object data, boolean force, int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        offsetX = new double[capacity];
+        offsetY = new double[capacity];
+        offsetZ = new double[capacity];
+        speed = new double[capacity];
+        count = new int[capacity];
+
+        reset(particle, data, force);
+    }
+
+    /**
+     * Clears this batch for reuse with new particle settings.
+     * @param particle The particle type to send.
+     * @param data The particle data, already matching the particle's data type, or null.
+     * @param force Whether the particles should be sent to players at long range.
+     * @return The same batch.
+     */
+    public ParticleBatch reset(@NotNull Particle particle, @Nullable Object data, boolean force) {
+        this.particle = particle;
+        this.data = data;
+        this.force = force;
+        size = 0;
+
+        minX = minY = minZ = Double.POSITIVE_INFINITY;
+        maxX = maxY = maxZ = Double.NEGATIVE_INFINITY;
+        return this;
+    }
+
+    /**
+     * Adds a particle to this batch.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param z The z coordinate.
+     * @param count The number of particles, where 0 uses the offset as a direction.
+     * @param offsetX The x offset or direction.
+     * @param offsetY The y offset or direction.
+     * @param offsetZ The z offset or direction.
+     * @param speed The speed or extra value.
+     */
+    public void add(double x, double y, double z, int count, double offsetX, double offsetY, double offsetZ, double speed) {
+        if (size == this.x.length) {
+            grow();
+        }
+
+        this.x[size] = x;
+        this.y[size] = y;
+        this.z[size] = z;
+        this.count[size] = count;
+        this.offsetX[size] = offsetX;
+        this.offsetY[size] = offsetY;
+        this.offsetZ[size] = offsetZ;
+        this.speed[size] = speed;
+        size++;
+
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+    }
+
+    private void grow() {
+        int newLength = x.length * 2;
+        x = Arrays.copyOf(x, newLength);
+        y = Arrays.copyOf(y, newLength);
+        z = Arrays.copyOf(z, newLength);
+        offsetX = Arrays.copyOf(offsetX, newLength);
+        offsetY = Arrays.copyOf(offsetY, newLength);
+        offsetZ = Arrays.copyOf(offsetZ, newLength);
+        speed = Arrays.copyOf(speed, newLength);
+        count = Arrays.copyOf(count, newLength);
+    }
+
+    /**
+     * Sends this batch to all players in the given world within range of any particle in it.
+     * @param world The world the particles are in.
+     */
+    public void send(@NotNull World world) {
+        if (size == 0) return;
+
+        if (lod != null) {
+            sendWithLod(world, lod);
+            return;
+        }
+
+        List<Player> viewers = getViewers(world);
+        if (!viewers.isEmpty()) {
+            sink.send(this, viewers);
+        }
+    }
+
+    private void sendWithLod(@NotNull World world, @NotNull ParticleLod lod) {
+        double range = force ? FORCE_RANGE : NORMAL_RANGE;
+        double rangeSquared = range * range;
+
+        List<List<Player>> viewersByLevel = new ArrayList<>(lod.getLevelCount());
+        for (int i = 0; i < lod.getLevelCount(); i++) {
+            viewersByLevel.add(new ArrayList<>());
+        }
+
+        Location location = new Location(world, 0, 0, 0);
+        for (Player player : getPlayersInRange(world, range)) {
+            double distanceSquared = distanceSquared(player.getLocation(location));
+            if (distanceSquared > rangeSquared) {
+                continue;
+            }
+
+            int level = lod.getLevelIndex(distanceSquared);
+            if (level != -1) {
+                viewersByLevel.get(level).add(player);
+            }
+        }
+
+        for (int level = 0; level < viewersByLevel.size(); level++) {
+            List<Player> viewers = viewersByLevel.get(level);
+            if (viewers.isEmpty()) {
+                continue;
+            }
+
+            double fraction = lod.getFraction(level, size);
+            if (fraction >= 1) {
+                sink.send(this, viewers);
+            } else if (fraction > 0) {
+                ParticleBatch thinnedBatch = thin(fraction);
+                if (!thinnedBatch.isEmpty()) {
+                    sink.send(thinnedBatch, viewers);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the reusable thinned batch with an evenly spread fraction of this batch's particles.
+     */
+    private ParticleBatch thin(double fraction) {
+        if (thinned == null) {
+            thinned = new ParticleBatch(particle, data, force, (int) Math.ceil(size * fraction));
+        } else {
+            thinned.reset(particle, data, force);
+        }
+
+        double accumulated = 0.5;
+        for (int i = 0; i < size; i++) {
+            accumulated += fraction;
+            if (accumulated >= 1) {
+                accumulated -= 1;
+                thinned.add(x[i], y[i], z[i], count[i], offsetX[i], offsetY[i], offsetZ[i], speed[i]);
+            }
+        }
+
+        return thinned;
+    }
+
+    /**
+     * Sends this batch to the given player only, regardless of distance.
+     * @param player The player to send the particles to.
+     */
+    public void send(@NotNull Player player) {
+        if (size == 0) return;
+
+        sink.send(this, Collections.singletonList(player));
+    }
+
+    /**
+     * Gets all players in the given world within range of the area this batch covers.
+     * @param world The world to find players in.
+     * @return The players who would see at least part of this batch.
+     */
+    @NotNull
+    public List<Player> getViewers(@NotNull World world) {
+        if (size == 0) return Collections.emptyList();
+
+        double range = force ? FORCE_RANGE : NORMAL_RANGE;
+        double rangeSquared = range * range;
+
+        List<Player> viewers = getPlayersInRange(world, range);
+        Location location = new Location(world, 0, 0, 0);
+        viewers.removeIf(player -> distanceSquared(player.getLocation(location)) > rangeSquared);
+
+        return viewers;
+    }
+
+    /**
+     * @return The players within the given range of this batch's bounds along each axis.
+     */
+    private List<Player> getPlayersInRange(World world, double range) {
+        return PlayerSpatialIndex.getInBox(world,
+                minX - range, minY - range, minZ - range,
+                maxX + range, maxY + range, maxZ + range
+        );
+    }
+
+    /**
+     * @return The squared distance from the given location to the nearest point of this batch's bounds.
+     */
+    private double distanceSquared(Location location) {
+        double dx = Math.max(0, Math.max(minX - location.getX(), location.getX() - maxX));
+        double dy = Math.max(0, Math.max(minY - location.getY(), location.getY() - maxY));
+        double dz = Math.max(0, Math.max(minZ - location.getZ(), location.getZ() - maxZ));
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @NotNull
+    public Particle getParticle() {
+        return particle;
+    }
+
+    @Nullable
+    public Object getData() {
+        return data;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    /**
+     * Sets the level of detail to use when sending this batch to a world, thinning or skipping
+     * particles for distant viewers.
+     * @param lod The level of detail, or null to send every particle to every viewer in range.
+     * @return The same batch.
+     */
+    public ParticleBatch setLod(@Nullable ParticleLod lod) {
+        this.lod = lod;
+        return this;
+    }
+
+    @Nullable
+    public ParticleLod getLod() {
+        return lod;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getZ(int index) {
+        return z[index];
+    }
+
+    public int getCount(int index) {
+        return count[index];
+    }
+
+    public double getOffsetX(int index) {
+        return offsetX[index];
+    }
+
+    public double getOffsetY(int index) {
+        return offsetY[index];
+    }
+
+    public double getOffsetZ(int index) {
+        return offsetZ[index];
+    }
+
+    public double getSpeed(int index) {
+        return speed[index];
+    }
+}
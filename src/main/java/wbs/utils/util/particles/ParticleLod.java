@@ -0,0 +1,163 @@
+package wbs.utils.util.particles;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wbs.utils.util.configuration.WbsConfigReader;
+
+import java.util.*;
+
+/**
+ * Level-of-detail settings for particle effects, reducing the number of particles sent to distant
+ * viewers. Each level applies to viewers up to a maximum distance from the effect, and keeps a fraction
+ * of the effect's particles, optionally capped at a maximum count. Viewers beyond the furthest level
+ * receive nothing.<p>
+ * Particles are thinned evenly across the effect, so distant viewers still see the whole shape at a
+ * lower density.<p>
+ * In config, {@code true} uses the {@link #getDefault() default} levels, or a list of levels may be given:
+ * <pre>
+ * lod:
+ *   - max-distance: 16
+ *     fraction: 1
+ *   - max-distance: 48
+ *     fraction: 0.25
+ *     max-particles: 50
+ * </pre>
+ */
+@SuppressWarnings({"unused", "UnusedReturnValue"})
+public class ParticleLod {
+
+    /**
+     * @return A new level of detail with full detail within 16 blocks, half within 32, a fifth within 64,
+     * and nothing beyond.
+     */
+    public static ParticleLod getDefault() {
+        return new ParticleLod()
+                .addLevel(16, 1)
+                .addLevel(32, 0.5)
+                .addLevel(64, 0.2);
+    }
+
+    /**
+     * Reads a level of detail from config.
+     * @param section The section containing the level of detail.
+     * @param path The path of the level of detail within the section.
+     * @return The level of detail, or null if none is configured.
+     */
+    @Nullable
+    public static ParticleLod fromConfig(@NotNull ConfigurationSection section, @NotNull String path) {
+        if (section.isList(path)) {
+            ParticleLod lod = new ParticleLod();
+            for (ConfigurationSection levelSection : WbsConfigReader.getSectionList(section, path)) {
+                lod.addLevel(
+                        levelSection.getDouble("max-distance"),
+                        levelSection.getDouble("fraction", 1),
+                        levelSection.getInt("max-particles", Integer.MAX_VALUE)
+                );
+            }
+            return lod.levels.isEmpty() ? null : lod;
+        }
+
+        return section.getBoolean(path, false) ? getDefault() : null;
+    }
+
+    private final List<Level> levels = new ArrayList<>();
+
+    /**
+     * Writes this level of detail to config, as {@code true} if it matches the default levels, or as a
+     * list of levels otherwise.
+     * @param section The section to write to.
+     * @param path The path to write to within the section.
+     */
+    public void writeToConfig(@NotNull ConfigurationSection section, @NotNull String path) {
+        if (equals(getDefault())) {
+            section.set(path, true);
+            return;
+        }
+
+        List<Map<String, Object>> levelMaps = new ArrayList<>();
+        for (Level level : levels) {
+            Map<String, Object> levelMap = new LinkedHashMap<>();
+            levelMap.put("max-distance", level.maxDistance());
+            levelMap.put("fraction", level.fraction());
+            if (level.maxParticles() != Integer.MAX_VALUE) {
+                levelMap.put("max-particles", level.maxParticles());
+            }
+            levelMaps.add(levelMap);
+        }
+        section.set(path, levelMaps);
+    }
+
+    /**
+     * Adds a detail level.
+     * @param maxDistance The maximum distance from the effect this level applies to.
+     * @param fraction The fraction of particles to send, from 0 to 1.
+     * @return The same object.
+     */
+    public ParticleLod addLevel(double maxDistance, double fraction) {
+        return addLevel(maxDistance, fraction, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds a detail level.
+     * @param maxDistance The maximum distance from the effect this level applies to.
+     * @param fraction The fraction of particles to send, from 0 to 1.
+     * @param maxParticles The most particles a viewer in this level may receive from a single effect.
+     * @return The same object.
+     */
+    public ParticleLod addLevel(double maxDistance, double fraction, int maxParticles) {
+        levels.add(new Level(maxDistance, Math.clamp(fraction, 0, 1), maxParticles));
+        levels.sort(Comparator.comparingDouble(Level::maxDistance));
+        return this;
+    }
+
+    /**
+     * @return The number of levels defined.
+     */
+    public int getLevelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Gets the level that applies at the given distance.
+     * @param distanceSquared The squared distance from the viewer to the effect.
+     * @return The index of the level, or -1 if the viewer is beyond every level.
+     */
+    public int getLevelIndex(double distanceSquared) {
+        for (int i = 0; i < levels.size(); i++) {
+            double maxDistance = levels.get(i).maxDistance();
+            if (distanceSquared <= maxDistance * maxDistance) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the fraction of particles to keep at the given level, for an effect of the given size.
+     * @param levelIndex The level, as returned by {@link #getLevelIndex(double)}.
+     * @param particleCount The number of particles in the effect.
+     * @return The fraction of particles to keep, accounting for the level's particle cap.
+     */
+    public double getFraction(int levelIndex, int particleCount) {
+        Level level = levels.get(levelIndex);
+        if (particleCount <= 0) {
+            return level.fraction();
+        }
+        return Math.min(level.fraction(), (double) level.maxParticles() / particleCount);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ParticleLod other)) return false;
+        return levels.equals(other.levels);
+    }
+
+    @Override
+    public int hashCode() {
+        return levels.hashCode();
+    }
+
+    private record Level(double maxDistance, double fraction, int maxParticles) {}
+}
@@ -0,0 +1,58 @@
+package wbs.utils.util.particles;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import wbs.utils.util.pluginhooks.hooks.PacketEventsWrapper;
+
+import java.util.Collection;
+
+/**
+ * Receives a completed {@link ParticleBatch} and delivers it to the given viewers.
+ */
+@FunctionalInterface
+public interface ParticleSink {
+
+    /**
+     * Sends particles through PacketEvents when installed, writing every packet for a viewer before
+     * flushing once, or through the Bukkit API otherwise.
+     */
+    ParticleSink DEFAULT = (batch, viewers) -> {
+        boolean sent = PacketEventsWrapper.get()
+                .map(wrapper -> wrapper.sendParticles(batch, viewers))
+                .orElse(false);
+
+        if (!sent) {
+            ParticleSink.sendWithBukkit(batch, viewers);
+        }
+    };
+
+    /**
+     * Sends every particle in the batch to each of the given viewers.
+     * @param batch The particles to send.
+     * @param viewers The players to send them to.
+     */
+    void send(@NotNull ParticleBatch batch, @NotNull Collection<? extends Player> viewers);
+
+    /**
+     * Sends every particle in the batch to each of the given viewers with {@link Player#spawnParticle},
+     * which avoids the per-particle viewer lookup done by the equivalent world methods. Forced batches are
+     * sent with the long distance flag, so they render beyond the client's normal particle range.
+     * @param batch The particles to send.
+     * @param viewers The players to send them to.
+     */
+    static void sendWithBukkit(@NotNull ParticleBatch batch, @NotNull Collection<? extends Player> viewers) {
+        Object data = batch.getData();
+        for (Player viewer : viewers) {
+            for (int i = 0; i < batch.size(); i++) {
+                viewer.spawnParticle(batch.getParticle(),
+                        batch.getX(i), batch.getY(i), batch.getZ(i),
+                        batch.getCount(i),
+                        batch.getOffsetX(i), batch.getOffsetY(i), batch.getOffsetZ(i),
+                        batch.getSpeed(i),
+                        data,
+                        batch.isForce()
+                );
+            }
+        }
+    }
+}
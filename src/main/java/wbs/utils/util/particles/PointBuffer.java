@@ -0,0 +1,78 @@
+package wbs.utils.util.particles;
+
+import org.bukkit.util.Vector;
+
+import java.util.List;
+
+/**
+ * An immutable set of points relative to an effect's origin, stored as primitive arrays so they can
+ * be played without allocating a {@link Vector} or {@link org.bukkit.Location} per point.
+ */
+public final class PointBuffer {
+
+    /**
+     * A buffer containing no points.
+     */
+    public static final PointBuffer EMPTY = new PointBuffer(List.of());
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] z;
+
+    /**
+     * @param points The points to copy into this buffer.
+     */
+    public PointBuffer(List<Vector> points) {
+        int size = points.size();
+        x = new double[size];
+        y = new double[size];
+        z = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            Vector point = points.get(i);
+            x[i] = point.getX();
+            y[i] = point.getY();
+            z[i] = point.getZ();
+        }
+    }
+
+    /**
+     * @return The number of points in this buffer.
+     */
+    public int size() {
+        return x.length;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    public double getZ(int index) {
+        return z[index];
+    }
+
+    /**
+     * Checks whether this buffer contains exactly the given points, in the same order.
+     * @param points The points to compare to.
+     * @return True if this buffer would be identical to one built from the given points.
+     */
+    public boolean matches(List<Vector> points) {
+        int size = points.size();
+        if (size != x.length) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            Vector point = points.get(i);
+            if (point.getX() != x[i] || point.getY() != y[i] || point.getZ() != z[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
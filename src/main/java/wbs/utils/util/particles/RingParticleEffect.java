@@ -1,6 +1,7 @@
 package wbs.utils.util.particles;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.util.Vector;
 import wbs.utils.util.WbsMath;
 import wbs.utils.util.plugin.WbsSettings;
 
@@ -33,10 +34,15 @@ public class RingParticleEffect extends CircleParticleEffect {
 	
 	@Override
 	public WbsParticleEffect build() {
-		points.clear();
 		refreshProviders();
 
-		if (about.val().equals(upVector)) {
+		Vector aboutVal = about.val();
+		if (!updateShapeInputs(amount.val(), radius.val(), rotation.val(), aboutVal.getX(), aboutVal.getY(), aboutVal.getZ())) {
+			return this;
+		}
+
+		points.clear();
+		if (aboutVal.equals(upVector)) {
 			points.addAll(WbsMath.get2Ring(amount.intVal(), radius.val(), rotation.val()));
 		} else {
 			points.addAll(WbsMath.get3Ring(amount.intVal(), radius.val(), about.val(), rotation.val()));
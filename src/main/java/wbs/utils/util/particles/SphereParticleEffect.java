@@ -29,9 +29,15 @@ public class SphereParticleEffect extends CircleParticleEffect {
 
     @Override
     public SphereParticleEffect build() {
-        points.clear();
         refreshProviders();
 
+        Vector aboutVal = about.val();
+        if (!updateShapeInputs(amount.val(), radius.val(), rotation.val(), aboutVal.getX(), aboutVal.getY(), aboutVal.getZ())) {
+            return this;
+        }
+
+        points.clear();
+
         List<Vector> tempPoints = new LinkedList<>(
                 WbsMath.getFibonacciSphere(amount.intVal(), radius.val())
         );
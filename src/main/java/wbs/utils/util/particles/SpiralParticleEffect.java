@@ -48,10 +48,15 @@ public class SpiralParticleEffect extends CircleParticleEffect {
 
 	@Override
 	public SpiralParticleEffect build() {
-		points.clear();
 		refreshProviders();
 
-		if (about.val().equals(upVector)) {
+		Vector aboutVal = about.val();
+		if (!updateShapeInputs(amount.val(), radius.val(), rotation.val(), aboutVal.getX(), aboutVal.getY(), aboutVal.getZ())) {
+			return this;
+		}
+
+		points.clear();
+		if (aboutVal.equals(upVector)) {
 			points.addAll(WbsMath.get2Ring(amount.intVal(), radius.val(), rotation.val()));
 		} else {
 			points.addAll(WbsMath.get3Ring(amount.intVal(), radius.val(), about.val(), rotation.val()));
@@ -73,6 +78,7 @@ public class SpiralParticleEffect extends CircleParticleEffect {
 		direction.val().normalize();
 		
 		ArrayList<Location> locations = getLocations(loc);
+		ParticleBatch batch = startBatch(particle);
 
 		int i = 0;
 		Location velPoint;
@@ -93,17 +99,12 @@ public class SpiralParticleEffect extends CircleParticleEffect {
 			}
 			Vector vec = velPoint.clone().subtract(loc.toVector()).toVector();
 			vec = scaleVector(vec, variation.val());
-			Vector vecSave = vec;
 			for (int k = 0; k < amount.intVal(); k++) {
-				vec = vecSave.clone();
-				if (preventDataUse(particle)) {
-					world.spawnParticle(particle, point, 0, vec.getX() + direction.getX(), vec.getY() + direction.getY(), vec.getZ() + direction.getZ(), speed.val(), null, force);
-				} else {
-					world.spawnParticle(particle, point, 0, vec.getX() + direction.getX(), vec.getY() + direction.getY(), vec.getZ() + direction.getZ(), speed.val(), particle.getDataType().cast(data), force);
-				}
+				batch.add(point.getX(), point.getY(), point.getZ(), 0, vec.getX() + direction.getX(), vec.getY() + direction.getY(), vec.getZ() + direction.getZ(), speed.val());
 			}
 		}
-		
+
+		batch.send(world);
 		return this;
 	}
 
@@ -1,14 +1,12 @@
 package wbs.utils.util.particles;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.bukkit.Location;
 import org.bukkit.Particle;
 import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
+import wbs.utils.util.WbsMath;
 import wbs.utils.util.providers.NumProvider;
 import wbs.utils.util.providers.VectorProvider;
 import wbs.utils.util.plugin.WbsSettings;
@@ -85,32 +83,7 @@ public abstract class VelocityParticleEffect extends WbsParticleEffect {
 
 	@Override
 	public VelocityParticleEffect play(Particle particle, Location loc, Player player) {
-		ArrayList<Location> locations = getLocations(loc);
-
-		List<Vector> localDirections = new ArrayList<>();
-		if (relative) {
-			locations.forEach(
-					offsetLoc -> localDirections.add(
-							offsetLoc.clone()
-									.subtract(loc)
-									.toVector()
-					)
-			);
-		} else {
-			for (int i = 0; i < locations.size(); i++) {
-				localDirections.add(direction.val());
-			}
-		}
-
-		for (int i = 0; i < points.size(); i++) {
-			Location point = locations.get(i);
-			Vector localDirection = localDirections.get(i);
-			if (preventDataUse(particle)) {
-				player.spawnParticle(particle, point, 0, localDirection.getX() + rand(variation.val()), localDirection.getY() + rand(variation.val()), localDirection.getZ() + rand(variation.val()), speed.val(), null);
-			} else {
-				player.spawnParticle(particle, point, 0, localDirection.getX() + rand(variation.val()), localDirection.getY() + rand(variation.val()), localDirection.getZ() + rand(variation.val()), speed.val(), particle.getDataType().cast(data));
-			}
-		}
+		fillBatch(particle, loc).send(player);
 		return this;
 	}
 
@@ -118,33 +91,41 @@ public abstract class VelocityParticleEffect extends WbsParticleEffect {
 	public VelocityParticleEffect play(Particle particle, Location loc) {
 		World world = loc.getWorld();
 		if (world == null) return this;
-		ArrayList<Location> locations = getLocations(loc);
-
-		List<Vector> localDirections = new ArrayList<>();
-		if (relative) {
-			locations.forEach(
-					offsetLoc -> localDirections.add(
-							offsetLoc.clone()
-							.subtract(loc)
-							.toVector()
-					)
-			);
-		} else {
-			for (int i = 0; i < locations.size(); i++) {
-				localDirections.add(direction.val());
+
+		fillBatch(particle, loc).send(world);
+		return this;
+	}
+
+	private ParticleBatch fillBatch(Particle particle, Location loc) {
+		PointBuffer buffer = getPointBuffer();
+		ParticleBatch batch = startBatch(particle);
+		Vector fixedDirection = relative ? null : direction.val();
+		double speedVal = speed.val();
+
+		for (int i = 0; i < buffer.size(); i++) {
+			if (chance < 100 && !WbsMath.chance(chance)) {
+				continue;
 			}
-		}
 
-		for (int i = 0; i < locations.size(); i++) {
-			Location point = locations.get(i);
-			Vector localDirection = localDirections.get(i);
-			if (preventDataUse(particle)) {
-				world.spawnParticle(particle, point, 0, localDirection.getX() + rand(variation.val()), localDirection.getY() + rand(variation.val()), localDirection.getZ() + rand(variation.val()), speed.val(), null, force);
+			double offsetX = buffer.getX(i);
+			double offsetY = buffer.getY(i);
+			double offsetZ = buffer.getZ(i);
+			double directionX, directionY, directionZ;
+			if (fixedDirection == null) {
+				directionX = offsetX;
+				directionY = offsetY;
+				directionZ = offsetZ;
 			} else {
-				world.spawnParticle(particle, point, 0, localDirection.getX() + rand(variation.val()), localDirection.getY() + rand(variation.val()), localDirection.getZ() + rand(variation.val()), speed.val(), particle.getDataType().cast(data), force);
+				directionX = fixedDirection.getX();
+				directionY = fixedDirection.getY();
+				directionZ = fixedDirection.getZ();
 			}
+
+			batch.add(loc.getX() + offsetX, loc.getY() + offsetY, loc.getZ() + offsetZ, 0,
+					directionX + rand(variation.val()), directionY + rand(variation.val()), directionZ + rand(variation.val()), speedVal);
 		}
-		return this;
+
+		return batch;
 	}
 
 	/*===============================*/
@@ -1,7 +1,7 @@
 package wbs.utils.util.particles;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import org.bukkit.Location;
 import org.bukkit.Particle;
@@ -74,6 +74,7 @@ public abstract class WbsParticleEffect {
 	protected NumProvider amount;
 	protected Object data = null;
 	protected boolean force = true;
+	protected ParticleLod lod = null;
 	
 	public WbsParticleEffect() {
 		amount = new NumProvider(1);
@@ -99,13 +100,25 @@ public abstract class WbsParticleEffect {
 		if (section.contains("chance")) {
 			chance = section.getDouble("chance", chance);
 		}
+
+		lod = ParticleLod.fromConfig(section, "lod");
 	}
 
 	/*===========================*/
 	/*          BUILDER          */
 	/*===========================*/
 
-	protected final ArrayList<Vector> points = new ArrayList<>();
+	private final PointList pointList = new PointList();
+	/**
+	 * The points generated by {@link #build()}, relative to the play location. Changes made through the list
+	 * are tracked automatically, but subclasses that modify a point in place must call
+	 * {@link #invalidatePoints()} afterwards.
+	 */
+	protected final ArrayList<Vector> points = pointList;
+
+	private PointBuffer pointBuffer = null;
+	private int pointBufferVersion = -1;
+	private double[] shapeInputs = null;
 	
 	/**
 	 * Generate the particle set based on current settings.
@@ -171,20 +184,71 @@ public abstract class WbsParticleEffect {
 	/*       UTILITY METHODS      */
 	/*===========================*/
 	
+	/**
+	 * Creates a batch set up for the given particle, so an entire play can be collected and sent to each
+	 * viewer at once. A new batch is created for each play, as effects may be played from several threads at once.
+	 * @param particle The particle type being played.
+	 * @return The empty batch.
+	 */
+	protected ParticleBatch startBatch(Particle particle) {
+		Object particleData = preventDataUse(particle) ? null : particle.getDataType().cast(data);
+
+		return new ParticleBatch(particle, particleData, force, Math.max(16, points.size()))
+				.setLod(lod);
+	}
+
 	protected ArrayList<Location> filterChances(ArrayList<Location> points) {
 		if (chance < 100) {
-			LinkedList<Location> removePoints = new LinkedList<>();
-			for (Location point : points) {
-				if (!WbsMath.chance(chance)) {
-					removePoints.add(point);
-				}
-			}
-			
-			points.removeAll(removePoints);
+			points.removeIf(point -> !WbsMath.chance(chance));
 		}
 		
 		return points;
 	}
+
+	/**
+	 * Gets the current points of this effect as a primitive buffer, building the effect first if
+	 * it has no points. The buffer is cached, and only recreated when the points have changed since
+	 * it was last retrieved.
+	 * @return The cached point buffer.
+	 */
+	protected PointBuffer getPointBuffer() {
+		if (points.isEmpty()) {
+			build();
+		}
+
+		int version = pointList.getVersion();
+		if (pointBuffer == null || pointBufferVersion != version) {
+			// Rebuilding with the same values produces an identical buffer, so keep the existing one.
+			if (pointBuffer == null || !pointBuffer.matches(points)) {
+				pointBuffer = points.isEmpty() ? PointBuffer.EMPTY : new PointBuffer(points);
+			}
+			pointBufferVersion = version;
+		}
+
+		return pointBuffer;
+	}
+
+	/**
+	 * Marks the points as changed, so cached data derived from them is rebuilt. Only needed after
+	 * modifying a point in place, such as with {@code points.get(i).add(offset)}.
+	 */
+	protected void invalidatePoints() {
+		pointList.invalidate();
+	}
+
+	/**
+	 * Records the values that determine this effect's shape, and checks whether they differ from those
+	 * recorded on the previous call. Subclasses may use this in {@link #build()} after refreshing providers
+	 * to skip regenerating points when nothing has changed.
+	 * @param inputs The values the generated points depend on.
+	 * @return True if the shape needs to be regenerated, either because the inputs changed
+	 * or because there are no points yet.
+	 */
+	protected boolean updateShapeInputs(double... inputs) {
+		boolean changed = points.isEmpty() || !Arrays.equals(shapeInputs, inputs);
+		shapeInputs = inputs;
+		return changed;
+	}
 	
 	protected ArrayList<Location> getLocations(Location loc) {
 		if (points.isEmpty()) {
@@ -208,6 +272,28 @@ public abstract class WbsParticleEffect {
 		return returnVal;
 	}
 
+	/**
+	 * A list of points that tracks when it's been modified, so derived data can be cached.
+	 */
+	private static class PointList extends ArrayList<Vector> {
+		@Override
+		public Vector set(int index, Vector element) {
+			modCount++;
+			return super.set(index, element);
+		}
+
+		private void invalidate() {
+			modCount++;
+		}
+
+		/**
+		 * @return A value that changes whenever this list is modified.
+		 */
+		public int getVersion() {
+			return modCount;
+		}
+	}
+
 	/*===============*/
 	/*     CLONE     */
 	/*===============*/
@@ -217,6 +303,7 @@ public abstract class WbsParticleEffect {
 	protected WbsParticleEffect cloneInto(WbsParticleEffect cloned) {
 		cloned.setAmount(new NumProvider(amount))
 				.setChance(chance)
+				.setLod(lod)
 				.setOptions(data);
 		
 		return cloned;
@@ -344,6 +431,24 @@ public abstract class WbsParticleEffect {
 		return force;
 	}
 
+	/**
+	 * Set the level of detail used when playing to a world, reducing or skipping
+	 * particles for distant players.
+	 * @param lod The level of detail, or null to send all particles to all players in range
+	 * @return The same particle effect
+	 */
+	public WbsParticleEffect setLod(ParticleLod lod) {
+		this.lod = lod;
+		return this;
+	}
+
+	/**
+	 * @return The level of detail used when playing to a world, or null if none is used
+	 */
+	public ParticleLod getLod() {
+		return lod;
+	}
+
 	/*=============================*/
 	/*        Serialization        */
 	/*=============================*/
@@ -358,6 +463,9 @@ public abstract class WbsParticleEffect {
 		amount.writeToConfig(section, path + ".amount");
 		section.set(path + ".force", force);
 		section.set(path + ".chance", chance);
+		if (lod != null) {
+			lod.writeToConfig(section, path + ".lod");
+		}
 	}
 
 }
@@ -38,6 +38,14 @@ public class DisplayParticle<T extends Display> extends EntityParticle<T> {
         super(entity, usePackets, maxAge, viewers, keyframes, dynamicKeyframes);
     }
 
+    public DisplayParticle(T entity,
+                           boolean usePackets,
+                           int maxAge,
+                           List<Player> viewers,
+                           KeyframeTimeline<T> timeline) {
+        super(entity, usePackets, maxAge, viewers, timeline);
+    }
+
     @Override
     protected void startTick(int currentAge) {
         if (angularVelocity != null && angularVelocity.length() > MINIMUM_ANGULAR_SPEED) {
@@ -1,7 +1,6 @@
 package wbs.utils.util.particles.entity;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.LinkedHashMultimap;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Transformation;
@@ -41,7 +40,7 @@ public class DisplayParticleBuilder<T extends Display> extends EntityParticleBui
 
     @Override
     protected @NotNull EntityParticle<T> buildInternal(T entity, List<Player> viewers) {
-        return new DisplayParticle<>(entity, usePackets, maxAge, viewers, LinkedHashMultimap.create(this.keyframes), LinkedHashMultimap.create(this.dynamicKeyframes))
+        return new DisplayParticle<>(entity, usePackets, maxAge, viewers, getTimeline())
                 .setAngularVelocity(angularVelocity != null ? angularVelocity.clone() : null)
                 .setAngularDrag(angularDrag)
                 .setTickForce(tickForce != null ? tickForce.clone() : null)
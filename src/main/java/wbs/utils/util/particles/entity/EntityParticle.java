@@ -1,6 +1,5 @@
 package wbs.utils.util.particles.entity;
 
-import com.github.retrooper.packetevents.util.reflection.Reflection;
 import com.google.common.collect.Multimap;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -12,10 +11,9 @@ import org.bukkit.util.Vector;
 import org.jetbrains.annotations.Contract;
 import org.jspecify.annotations.Nullable;
 import wbs.utils.WbsUtils;
+import wbs.utils.util.entities.WbsNmsEntityAccess;
 import wbs.utils.util.pluginhooks.hooks.PacketEventsWrapper;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
@@ -28,8 +26,7 @@ public class EntityParticle<T extends Entity> {
     protected final T entity;
     protected final boolean usePackets;
     protected final List<Player> viewers;
-    protected final Multimap<String, Keyframe<T>> keyframes;
-    protected final Multimap<String, Keyframe<T>> dynamicKeyframes;
+    protected final KeyframeTimeline<T> timeline;
 
     protected boolean doBlockCollisions = false;
 
@@ -37,6 +34,7 @@ public class EntityParticle<T extends Entity> {
     protected int startTick = -1;
     protected boolean isSpawned = false;
     private int currentAge;
+    private int keyframeCursor = 0;
 
     @Nullable
     protected Vector tickForce = null; // Applied to the entity every tick
@@ -48,12 +46,19 @@ public class EntityParticle<T extends Entity> {
                           List<Player> viewers,
                           Multimap<String, Keyframe<T>> keyframes,
                           Multimap<String, Keyframe<T>> dynamicKeyframes) {
+        this(entity, usePackets, maxAge, viewers, KeyframeTimeline.compile(keyframes, dynamicKeyframes, maxAge));
+    }
+
+    public EntityParticle(T entity,
+                          boolean usePackets,
+                          int maxAge,
+                          List<Player> viewers,
+                          KeyframeTimeline<T> timeline) {
         this.entity = entity;
         this.usePackets = usePackets;
         this.maxAge = maxAge;
         this.viewers = viewers;
-        this.keyframes = keyframes;
-        this.dynamicKeyframes = dynamicKeyframes;
+        this.timeline = timeline;
     }
 
     @Contract(mutates = "this")
@@ -61,26 +66,41 @@ public class EntityParticle<T extends Entity> {
         spawn();
 
         runTick(0);
+        if (usePackets) {
+            PacketEventsWrapper.get().ifPresent(PacketEventsWrapper::flushQueuedPackets);
+        }
 
         startTick = Bukkit.getCurrentTick();
-        WbsUtils.getInstance().runTimer(runnable -> {
-            currentAge = Bukkit.getCurrentTick() - startTick;
-
-            if (maxAge > 0 && currentAge >= maxAge) {
-                if (usePackets) {
-                    PacketEventsWrapper.get().ifPresent(pe -> {
-                        viewers.forEach(viewer -> pe.removeEntity(entity, viewer));
-                    });
-                } else {
-                    entity.remove();
-                }
+        EntityParticleEngine.get(entity.getWorld()).add(this);
+    }
+
+    /**
+     * Advances this particle to the given server tick, removing it if it has reached its max age.
+     * @param currentTick The current server tick.
+     * @return Whether this particle is still alive and should keep being ticked.
+     */
+    boolean tick(int currentTick) {
+        currentAge = currentTick - startTick;
+
+        // Age 0 was already run by start(), if the engine ticks again in the tick it was started
+        if (currentAge <= 0) {
+            return true;
+        }
 
-                runnable.cancel();
-                return;
+        if (maxAge > 0 && currentAge >= maxAge) {
+            if (usePackets) {
+                PacketEventsWrapper.get().ifPresent(pe -> {
+                    viewers.forEach(viewer -> pe.removeEntity(entity, viewer));
+                });
+            } else {
+                entity.remove();
             }
 
-            runTick(currentAge);
-        }, 1, 1);
+            return false;
+        }
+
+        runTick(currentAge);
+        return true;
     }
 
     private void runTick(int currentAge) {
@@ -108,11 +128,7 @@ public class EntityParticle<T extends Entity> {
         playKeyframes(currentAge);
 
         if (usePackets) {
-            PacketEventsWrapper.get().ifPresent(pe -> {
-                viewers.forEach(viewer -> {
-                    pe.updateEntity(entity, viewer);
-                });
-            });
+            PacketEventsWrapper.get().ifPresent(pe -> pe.queueEntityUpdate(entity, viewers));
         }
 
         endTick(currentAge);
@@ -136,26 +152,13 @@ public class EntityParticle<T extends Entity> {
             newLocation = location.add(velocity);
         }
 
-        try {
-            Object handle = Reflection.getMethod(entity.getClass(), "getHandle").invoke(entity);
-
-            Method setPosRawMethod = Class.forName("net.minecraft.world.entity.Entity")
-                    .getMethod("setPosRaw", double.class, double.class, double.class, boolean.class);
-
-            setPosRawMethod.invoke(handle, newLocation.getX(), newLocation.getY(), newLocation.getZ(), false);
-        } catch (IllegalAccessException | InvocationTargetException | ClassNotFoundException |
-                 NoSuchMethodException e) {
-            throw new RuntimeException(e);
-        }
+        WbsNmsEntityAccess.setPosRaw(entity, newLocation.getX(), newLocation.getY(), newLocation.getZ());
 
-        viewers.forEach(viewer -> {
-            PacketEventsWrapper.get().ifPresent(pe -> pe.updateEntityPosition(entity, viewer));
-        });
+        PacketEventsWrapper.get().ifPresent(pe -> pe.queueEntityPosition(entity, viewers));
     }
 
     private void playKeyframes(int currentAge) {
-        keyframes.values().forEach(keyframe -> keyframe.runIfMatch(this, currentAge));
-        dynamicKeyframes.values().forEach(keyframe -> keyframe.runIfMatch(this, currentAge));
+        keyframeCursor = timeline.play(this, currentAge, keyframeCursor);
     }
 
     @OverrideOnly
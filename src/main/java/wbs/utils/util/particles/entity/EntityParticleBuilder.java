@@ -14,6 +14,8 @@ import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static org.jetbrains.annotations.ApiStatus.OverrideOnly;
+
 @NullMarked
 public class EntityParticleBuilder<T extends Entity> {
     public static List<Player> getViewers(Location location, @Nullable Player player) {
@@ -42,6 +44,8 @@ public class EntityParticleBuilder<T extends Entity> {
 
     protected final Multimap<String, Keyframe<T>> keyframes = LinkedHashMultimap.create();
     protected final Multimap<String, Keyframe<T>> dynamicKeyframes = LinkedHashMultimap.create();
+    @Nullable
+    private KeyframeTimeline<T> timeline = null;
 
     public EntityParticleBuilder(Class<T> entityClass) {
         this.entityClass = entityClass;
@@ -72,12 +76,41 @@ public class EntityParticleBuilder<T extends Entity> {
     }
 
     protected @NotNull EntityParticle<T> buildInternal(T entity, List<Player> viewers) {
-        return new EntityParticle<>(entity, usePackets, maxAge, viewers, HashMultimap.create(this.keyframes), HashMultimap.create(this.dynamicKeyframes))
+        return new EntityParticle<>(entity, usePackets, maxAge, viewers, getTimeline())
                 .setTickForce(tickForce != null ? tickForce.clone() : null)
                 .setDrag(drag)
                 .doBlockCollisions(doBlockCollisions);
     }
 
+    /**
+     * Gets the keyframes compiled into a timeline, compiling them if anything has changed since the last
+     * particle was built.
+     * @return The compiled timeline shared by particles built from this builder.
+     */
+    protected KeyframeTimeline<T> getTimeline() {
+        if (timeline == null) {
+            prepareKeyframes();
+            timeline = KeyframeTimeline.compile(keyframes, dynamicKeyframes, maxAge);
+        }
+        return timeline;
+    }
+
+    /**
+     * Marks the compiled timeline as outdated, so it's recompiled for the next particle. Must be called
+     * whenever keyframes, or anything {@link #prepareKeyframes()} depends on, change.
+     */
+    protected void invalidateTimeline() {
+        timeline = null;
+    }
+
+    /**
+     * Called before the timeline is compiled, to generate any keyframes that depend on other settings.
+     */
+    @OverrideOnly
+    protected void prepareKeyframes() {
+
+    }
+
     public EntityParticle<T> playParticle(Location location) {
         return playParticle(location, null);
     }
@@ -100,6 +133,7 @@ public class EntityParticleBuilder<T extends Entity> {
 
     public EntityParticleBuilder<T> setMaxAge(int maxAge) {
         this.maxAge = maxAge;
+        invalidateTimeline();
         return this;
     }
 
@@ -110,6 +144,7 @@ public class EntityParticleBuilder<T extends Entity> {
             this.keyframes.put(group, Keyframe.particle(frame,particle -> setter.set(particle, value)));
         });
 
+        invalidateTimeline();
         return this;
     }
 
@@ -120,6 +155,7 @@ public class EntityParticleBuilder<T extends Entity> {
             this.keyframes.put(group, Keyframe.particle(frame,particle -> setter.set(particle, value)));
         });
 
+        invalidateTimeline();
         return this;
     }
 
@@ -131,11 +167,13 @@ public class EntityParticleBuilder<T extends Entity> {
 
     public EntityParticleBuilder<T> addKeyframe(String group, Keyframe<T> keyframe) {
         this.keyframes.put(group, keyframe);
+        invalidateTimeline();
         return this;
     }
 
     public EntityParticleBuilder<T> clearKeyframes(String group) {
         this.keyframes.removeAll(group);
+        invalidateTimeline();
         return this;
     }
 
@@ -157,11 +195,13 @@ public class EntityParticleBuilder<T extends Entity> {
         builder.generate().forEach(keyframe -> {
             dynamicKeyframes.put(key, keyframe);
         });
+        invalidateTimeline();
         return this;
     }
 
     public EntityParticleBuilder<T> removeDynamicKeyframes(String key) {
         this.dynamicKeyframes.removeAll(key);
+        invalidateTimeline();
         return this;
     }
 
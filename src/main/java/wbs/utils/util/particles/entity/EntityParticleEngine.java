@@ -0,0 +1,166 @@
+package wbs.utils.util.particles.entity;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import wbs.utils.WbsUtils;
+import wbs.utils.util.pluginhooks.hooks.PacketEventsWrapper;
+
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * Ticks every live {@link EntityParticle} in a single world from one shared timer, rather than
+ * scheduling a task per particle.<p>
+ * Live particles are held in a flat array; expired particles are removed by swapping the last live
+ * particle into their slot, so a tick pass never shifts or reallocates. The timer only runs while
+ * the world has live particles.
+ */
+@SuppressWarnings("unused")
+public final class EntityParticleEngine {
+
+    private static final Map<UUID, EntityParticleEngine> ENGINES = new HashMap<>();
+
+    /**
+     * Gets the engine for the given world, creating it if needed.
+     * @param world The world to get the engine for.
+     * @return The engine that ticks particles in that world.
+     */
+    @NotNull
+    public static EntityParticleEngine get(@NotNull World world) {
+        return ENGINES.computeIfAbsent(world.getUID(), uid -> new EntityParticleEngine(world.getName()));
+    }
+
+    /**
+     * @return An unmodifiable view of all engines that have been created, by world UID.
+     */
+    @NotNull
+    public static Map<UUID, EntityParticleEngine> getEngines() {
+        return Collections.unmodifiableMap(ENGINES);
+    }
+
+    /**
+     * @return The number of live particles across every world.
+     */
+    public static int getTotalLiveCount() {
+        int total = 0;
+        for (EntityParticleEngine engine : ENGINES.values()) {
+            total += engine.size;
+        }
+        return total;
+    }
+
+    private final String worldName;
+
+    private EntityParticle<?>[] particles = new EntityParticle<?>[64];
+    private int size = 0;
+    private boolean running = false;
+
+    private long lastTickNanos = 0;
+    private long totalTickNanos = 0;
+    private long ticksRun = 0;
+    private int peakLiveCount = 0;
+
+    private EntityParticleEngine(String worldName) {
+        this.worldName = worldName;
+    }
+
+    void add(@NotNull EntityParticle<?> particle) {
+        if (size == particles.length) {
+            particles = Arrays.copyOf(particles, size * 2);
+        }
+
+        particles[size++] = particle;
+        peakLiveCount = Math.max(peakLiveCount, size);
+
+        if (!running) {
+            running = true;
+            WbsUtils.getInstance().runTimer(runnable -> {
+                tick();
+
+                if (size == 0) {
+                    running = false;
+                    runnable.cancel();
+                }
+            }, 1, 1);
+        }
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        int currentTick = Bukkit.getCurrentTick();
+
+        int index = 0;
+        while (index < size) {
+            EntityParticle<?> particle = particles[index];
+
+            boolean alive;
+            try {
+                alive = particle.tick(currentTick);
+            } catch (RuntimeException e) {
+                WbsUtils.getInstance().getLogger().log(Level.SEVERE,
+                        "An entity particle in world " + worldName + " failed to tick, and was removed.", e);
+                alive = false;
+            }
+
+            if (alive) {
+                index++;
+            } else {
+                // Don't advance; the swapped-in particle still needs ticking.
+                particles[index] = particles[--size];
+                particles[size] = null;
+            }
+        }
+
+        // Send every particle's updates for this tick together
+        PacketEventsWrapper.get().ifPresent(PacketEventsWrapper::flushQueuedPackets);
+
+        lastTickNanos = System.nanoTime() - start;
+        totalTickNanos += lastTickNanos;
+        ticksRun++;
+    }
+
+    /**
+     * @return The number of particles currently being ticked in this world.
+     */
+    public int getLiveCount() {
+        return size;
+    }
+
+    /**
+     * @return The most particles that have been live in this world at once.
+     */
+    public int getPeakLiveCount() {
+        return peakLiveCount;
+    }
+
+    /**
+     * @return The time taken by the most recent tick pass, in nanoseconds.
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * @return The average time taken per tick pass since the stats were last reset, in milliseconds.
+     */
+    public double getAverageTickMillis() {
+        return ticksRun == 0 ? 0 : totalTickNanos / (double) ticksRun / 1_000_000;
+    }
+
+    /**
+     * @return Whether the shared timer is currently scheduled.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Resets the tick timing and peak count stats.
+     */
+    public void resetStats() {
+        totalTickNanos = 0;
+        ticksRun = 0;
+        peakLiveCount = size;
+    }
+}
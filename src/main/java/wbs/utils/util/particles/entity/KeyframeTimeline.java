@@ -0,0 +1,95 @@
+package wbs.utils.util.particles.entity;
+
+import com.google.common.collect.Multimap;
+import org.bukkit.entity.Entity;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable set of keyframes compiled into tick order, so a particle can find the keyframes due on
+ * a given tick without checking every keyframe.<p>
+ * Keyframes are stored in a flat array sorted by tick, with a parallel array of ticks. Since particles
+ * age one tick at a time, each particle keeps a cursor into the timeline, and a tick with no keyframes
+ * costs a single comparison.
+ * @param <T> The type of entity the keyframes apply to.
+ */
+@NullMarked
+public final class KeyframeTimeline<T extends Entity> {
+
+    /**
+     * Compiles the given keyframes for a particle with the given max age. Keyframes on the same tick
+     * run in the order given, with all static keyframes before dynamic ones.
+     * @param keyframes The static keyframes.
+     * @param dynamicKeyframes The generated keyframes.
+     * @param maxAge The max age of particles using the timeline, used to resolve relative keyframes.
+     * @return The compiled timeline.
+     */
+    public static <T extends Entity> KeyframeTimeline<T> compile(Multimap<String, Keyframe<T>> keyframes,
+                                                                 Multimap<String, Keyframe<T>> dynamicKeyframes,
+                                                                 int maxAge) {
+        int maxTick = maxAge - 1;
+
+        List<TimedKeyframe<T>> timed = new ArrayList<>(keyframes.size() + dynamicKeyframes.size());
+        keyframes.values().forEach(keyframe -> timed.add(new TimedKeyframe<>(keyframe.getTick(maxTick), keyframe)));
+        dynamicKeyframes.values().forEach(keyframe -> timed.add(new TimedKeyframe<>(keyframe.getTick(maxTick), keyframe)));
+
+        // List.sort is stable, so keyframes on the same tick keep their relative order
+        timed.sort(Comparator.comparingInt(TimedKeyframe::tick));
+
+        int[] ticks = new int[timed.size()];
+        List<Keyframe<T>> frames = new ArrayList<>(timed.size());
+        for (int i = 0; i < timed.size(); i++) {
+            ticks[i] = timed.get(i).tick();
+            frames.add(timed.get(i).keyframe());
+        }
+
+        return new KeyframeTimeline<>(ticks, frames);
+    }
+
+    private final int[] ticks;
+    private final List<Keyframe<T>> frames;
+
+    private KeyframeTimeline(int[] ticks, List<Keyframe<T>> frames) {
+        this.ticks = ticks;
+        this.frames = frames;
+    }
+
+    /**
+     * Runs every keyframe due on the given tick, starting the search from the given cursor.
+     * @param particle The particle to run the keyframes on.
+     * @param currentTick The particle's current age.
+     * @param cursor The cursor returned from the previous call, or 0 on the first call.
+     * @return The cursor to pass to the next call.
+     */
+    public int play(EntityParticle<T> particle, int currentTick, int cursor) {
+        while (cursor < ticks.length && ticks[cursor] < currentTick) {
+            cursor++;
+        }
+
+        while (cursor < ticks.length && ticks[cursor] == currentTick) {
+            frames.get(cursor).run(particle);
+            cursor++;
+        }
+
+        return cursor;
+    }
+
+    /**
+     * @return The number of keyframes in this timeline.
+     */
+    public int size() {
+        return ticks.length;
+    }
+
+    /**
+     * @return Whether this timeline has no keyframes.
+     */
+    public boolean isEmpty() {
+        return ticks.length == 0;
+    }
+
+    private record TimedKeyframe<T extends Entity>(int tick, Keyframe<T> keyframe) {}
+}
@@ -63,13 +63,7 @@ public class TextDisplayParticleBuilder extends DisplayParticleBuilder<TextDispl
     }
 
     @Override
-    protected void configure(TextDisplay display) {
-        display.setBillboard(Display.Billboard.CENTER);
-
-        display.text(Objects.requireNonNullElse(text, DEFAULT_TEXT));
-
-        display.setBackgroundColor(backgroundColor);
-
+    protected void prepareKeyframes() {
         if (!rotationFrames.isEmpty()) {
             InterpolatedFrameGenerator<TextDisplay, Float> rotationBuilder = buildInterpolatedKeyframes(TextDisplayParticleBuilder::interpolateRotation, 0f)
                     .setEntitySetter((textDisplay, rotation) -> {
@@ -97,12 +91,22 @@ public class TextDisplayParticleBuilder extends DisplayParticleBuilder<TextDispl
             colorFrames.forEach(colourBuilder::setFrame);
             fillKeyframes("color", colourBuilder);
         }
+    }
+
+    @Override
+    protected void configure(TextDisplay display) {
+        display.setBillboard(Display.Billboard.CENTER);
+
+        display.text(Objects.requireNonNullElse(text, DEFAULT_TEXT));
+
+        display.setBackgroundColor(backgroundColor);
 
         super.configure(display);
     }
 
     public TextDisplayParticleBuilder setBackgroundColor(@Nullable Color backgroundColor) {
         this.backgroundColor = backgroundColor;
+        invalidateTimeline();
         return this;
     }
 
@@ -113,6 +117,7 @@ public class TextDisplayParticleBuilder extends DisplayParticleBuilder<TextDispl
 
     public TextDisplayParticleBuilder setRotationDynamicKeyframe(int tick, float radians) {
         rotationFrames.put(tick, radians);
+        invalidateTimeline();
 
         return this;
     }
@@ -129,6 +134,7 @@ public class TextDisplayParticleBuilder extends DisplayParticleBuilder<TextDispl
 
     public TextDisplayParticleBuilder setColorKeyframe(int tick, Color color) {
         colorFrames.put(tick, color);
+        invalidateTimeline();
 
         return this;
     }
@@ -149,6 +155,7 @@ public class TextDisplayParticleBuilder extends DisplayParticleBuilder<TextDispl
 
     public TextDisplayParticleBuilder setColorFrames(Map<Double, Color> frames) {
         this.colorFrames.clear();
+        invalidateTimeline();
 
         frames.forEach(this::setColorKeyframe);
 
@@ -157,6 +164,7 @@ public class TextDisplayParticleBuilder extends DisplayParticleBuilder<TextDispl
     @SafeVarargs
     public final TextDisplayParticleBuilder setColorFrames(ValueKeyframe<Color> ... keyframes) {
         this.colorFrames.clear();
+        invalidateTimeline();
 
         for (ValueKeyframe<Color> keyframe : keyframes) {
             setColorKeyframe(keyframe.getTick(maxAge - 1), keyframe.getValue());
@@ -3,9 +3,9 @@ package wbs.utils.util.particles.entity.interpolation;
 import org.bukkit.entity.Entity;
 import org.jetbrains.annotations.Range;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 @NullMarked
 public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGenerator<InterpolatedFrameGenerator<T, V>, T, V> {
@@ -13,6 +13,10 @@ public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGen
     private final V defaultValue;
     private final Map<Integer, V> frames = new HashMap<>();
 
+    // Frames sorted by tick, compiled on first lookup after the frames change
+    private int @Nullable [] sortedTicks = null;
+    private List<V> sortedValues = new ArrayList<>();
+
     public InterpolatedFrameGenerator(int maxAge, Interpolator<V> interpolator, V defaultValue) {
         super(maxAge);
         this.interpolator = interpolator;
@@ -21,6 +25,7 @@ public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGen
 
     public InterpolatedFrameGenerator<T, V> setFrame(int tick, V value) {
         frames.put(tick, value);
+        sortedTicks = null;
         return this;
     }
 
@@ -36,6 +41,7 @@ public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGen
 
     public InterpolatedFrameGenerator<T, V> setFrames(Map<Double, V> frames) {
         this.frames.clear();
+        sortedTicks = null;
 
         frames.forEach(this::setFrame);
 
@@ -45,6 +51,7 @@ public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGen
     @SafeVarargs
     public final InterpolatedFrameGenerator<T, V> setFrames(ValueKeyframe<V>... keyframes) {
         this.frames.clear();
+        sortedTicks = null;
 
         for (ValueKeyframe<V> keyframe : keyframes) {
             setFrame(keyframe.getTick(getEndTick()), keyframe.getValue());
@@ -63,33 +70,24 @@ public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGen
             return defaultValue;
         }
 
-        int firstFrame = frames.keySet().stream().mapToInt(val -> val).min().orElseThrow();
+        int[] ticks = getSortedTicks();
 
-        if (currentTick < firstFrame) {
+        if (currentTick < ticks[0]) {
             return defaultValue;
         }
 
-        V explicitKeyframe = frames.get(currentTick);
-        if (explicitKeyframe != null) {
-        //    WbsUtils.getInstance().getLogger().info( "EXPLICIT FRAME: " + currentTick + ": " + explicitKeyframe);
-            return explicitKeyframe;
+        int index = Arrays.binarySearch(ticks, currentTick);
+        if (index >= 0) {
+            return sortedValues.get(index);
         }
 
-        int previousFrame = frames.keySet().stream()
-                .filter(tick -> tick < currentTick)
-                .mapToInt(val -> val)
-                .max() // Max frame less than this one
-                .orElse(getStartTick());
-
-        int nextFrame = frames.keySet().stream()
-                .filter(tick -> tick > currentTick)
-                .mapToInt(val -> val)
-                .min()
-                .orElse(getEndTick());
+        // Insertion point is after at least one frame, since currentTick is after the first frame
+        int nextIndex = -index - 1;
+        int previousFrame = ticks[nextIndex - 1];
+        int nextFrame = nextIndex < ticks.length ? ticks[nextIndex] : getEndTick();
 
-
-        V previousValue = frames.getOrDefault(previousFrame, defaultValue);
-        V nextValue = frames.getOrDefault(nextFrame, previousValue);
+        V previousValue = sortedValues.get(nextIndex - 1);
+        V nextValue = nextIndex < ticks.length ? sortedValues.get(nextIndex) : previousValue;
 
         double progress = (double) (currentTick - previousFrame) / ((nextFrame) - previousFrame);
 
@@ -106,6 +104,21 @@ public class InterpolatedFrameGenerator<T extends Entity, V> extends KeyframeGen
         return interpolated;
     }
 
+    private int[] getSortedTicks() {
+        int[] ticks = sortedTicks;
+        if (ticks == null) {
+            ticks = frames.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+
+            sortedValues = new ArrayList<>(ticks.length);
+            for (int tick : ticks) {
+                sortedValues.add(frames.get(tick));
+            }
+
+            sortedTicks = ticks;
+        }
+        return ticks;
+    }
+
     @FunctionalInterface
     public interface Interpolator<T> {
         T interpolate(T previousValue, T nextValue, double progress);
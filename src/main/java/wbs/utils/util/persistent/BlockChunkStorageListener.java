@@ -0,0 +1,31 @@
+package wbs.utils.util.persistent;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldSaveEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Writes block containers cached by {@link BlockChunkStorageUtil} back to their chunks when the chunks
+ * are saved or unloaded.
+ */
+public final class BlockChunkStorageListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        BlockChunkStorageUtil.unload(event.getChunk());
+    }
+
+    // Runs before the world's chunks are written
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        BlockChunkStorageUtil.flush(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        BlockChunkStorageUtil.unload(event.getWorld());
+    }
+}
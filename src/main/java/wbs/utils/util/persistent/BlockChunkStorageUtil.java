@@ -1,8 +1,9 @@
 package wbs.utils.util.persistent;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
-import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
@@ -12,15 +13,77 @@ import wbs.utils.WbsUtils;
 import java.util.*;
 import java.util.function.Consumer;
 
+/**
+ * Stores a persistent data container per block, in the persistent data of the block's chunk.<p>
+ * Each chunk's containers are read once on first access and held in memory. Changes are written back
+ * to the chunk when it's saved or unloaded, so registering {@link BlockChunkStorageListener} is required
+ * for changes to persist.<p>
+ * Containers can be stored in either {@link StorageFormat}, and chunks are migrated to the configured
+ * format as they're saved.
+ */
 @SuppressWarnings("unused")
 public class BlockChunkStorageUtil {
     public static final NamespacedKey TAG = new NamespacedKey(WbsUtils.getInstance(), "block_containers");
+    public static final NamespacedKey SECTIONS_TAG = new NamespacedKey(WbsUtils.getInstance(), "block_sections");
+
+    /**
+     * The ways block containers can be stored in a chunk's persistent data.
+     */
+    public enum StorageFormat {
+        /**
+         * One nested container per block, keyed by the block's coordinates.
+         */
+        CONTAINER_PER_BLOCK,
+        /**
+         * One byte array per chunk section, holding every block container in that section with
+         * varint-encoded positions. Smaller on disk, and only decoded per block when accessed.
+         */
+        PACKED_SECTIONS,
+    }
+
+    private static StorageFormat storageFormat = StorageFormat.CONTAINER_PER_BLOCK;
+
+    /**
+     * Sets the format chunks are written in. Chunks in either format are always readable, and are
+     * rewritten in this format the next time they're saved.
+     * @param format The format to write.
+     */
+    public static void setStorageFormat(@NotNull StorageFormat format) {
+        if (storageFormat == format) {
+            return;
+        }
+
+        storageFormat = format;
+
+        // Loaded chunks were read assuming the old format, so rewrite them too
+        STORES.values().forEach(worldStores -> worldStores.values().forEach(ChunkBlockStore::markDirty));
+    }
+
+    @NotNull
+    public static StorageFormat getStorageFormat() {
+        return storageFormat;
+    }
+
+    // Loaded chunk stores, by world UID then chunk key
+    private static final Map<UUID, Map<Long, ChunkBlockStore>> STORES = new HashMap<>();
 
     public static NamespacedKey getBlockKey(Block block) {
-        return new NamespacedKey(WbsUtils.getInstance(), block.getX() + "_" + block.getY() + '_' + block.getZ());
+        return getBlockKey(block.getX(), block.getY(), block.getZ());
+    }
+
+    private static NamespacedKey getBlockKey(int x, int y, int z) {
+        return new NamespacedKey(WbsUtils.getInstance(), x + "_" + y + '_' + z);
     }
 
-    private static Location locationFromKey(NamespacedKey key) {
+    static NamespacedKey keyFromPacked(int chunkX, int chunkZ, long packed) {
+        return getBlockKey(
+                (chunkX << 4) + ChunkBlockStore.unpackLocalX(packed),
+                ChunkBlockStore.unpackY(packed),
+                (chunkZ << 4) + ChunkBlockStore.unpackLocalZ(packed)
+        );
+    }
+
+    static long packedFromKey(NamespacedKey key) {
         String asString = key.value();
 
         String[] args = asString.split("_");
@@ -28,90 +91,172 @@ public class BlockChunkStorageUtil {
             throw new IllegalStateException("Invalid block key: " + key.asString());
         }
 
-        return new Location(null, Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+        return ChunkBlockStore.pack(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]));
     }
 
-    @NotNull
-    public static PersistentDataContainer getContainer(Block block) {
-        PersistentDataContainer chunkContainer = block.getChunk().getPersistentDataContainer();
-        PersistentDataContainer blocksContainer = chunkContainer.get(TAG, PersistentDataType.TAG_CONTAINER);
+    private static ChunkBlockStore getStore(Block block) {
+        Map<Long, ChunkBlockStore> worldStores = STORES.computeIfAbsent(block.getWorld().getUID(), uid -> new HashMap<>());
 
-        NamespacedKey blockKey = getBlockKey(block);
-        if (blocksContainer == null) {
-            return chunkContainer.getAdapterContext().newPersistentDataContainer();
+        long chunkKey = Chunk.getChunkKey(block.getX() >> 4, block.getZ() >> 4);
+        ChunkBlockStore store = worldStores.get(chunkKey);
+        if (store == null) {
+            store = new ChunkBlockStore(block.getChunk());
+            worldStores.put(chunkKey, store);
         }
 
-        PersistentDataContainer blockContainer = blocksContainer.get(blockKey, PersistentDataType.TAG_CONTAINER);
+        return store;
+    }
 
-        if (blockContainer == null) {
-            return blocksContainer.getAdapterContext().newPersistentDataContainer();
-        }
+    private static ChunkBlockStore getStore(Chunk chunk) {
+        return STORES.computeIfAbsent(chunk.getWorld().getUID(), uid -> new HashMap<>())
+                .computeIfAbsent(chunk.getChunkKey(), key -> new ChunkBlockStore(chunk));
+    }
 
-        return blockContainer;
+    private static long pack(Block block) {
+        return ChunkBlockStore.pack(block.getX(), block.getY(), block.getZ());
     }
 
-    public static void writeContainer(Block block, @NotNull PersistentDataContainer container) {
-        PersistentDataContainer chunkContainer = block.getChunk().getPersistentDataContainer();
-        PersistentDataContainer blocksContainer = chunkContainer.get(TAG, PersistentDataType.TAG_CONTAINER);
-        if (blocksContainer == null) {
-            blocksContainer = chunkContainer.getAdapterContext().newPersistentDataContainer();
+    private static PersistentDataContainer copy(ChunkBlockStore store, PersistentDataContainer container) {
+        PersistentDataContainer copy = store.newContainer();
+        container.copyTo(copy, true);
+        return copy;
+    }
+
+    /**
+     * Gets a copy of the container stored for the given block. Changes to it must be saved with
+     * {@link #writeContainer(Block, PersistentDataContainer)}.
+     * @param block The block to get the container for.
+     * @return A copy of the block's container, or a new empty container if the block has none.
+     */
+    @NotNull
+    public static PersistentDataContainer getContainer(Block block) {
+        ChunkBlockStore store = getStore(block);
+
+        PersistentDataContainer blockContainer = store.get(pack(block));
+        if (blockContainer == null) {
+            return store.newContainer();
         }
 
-        NamespacedKey blockKey = getBlockKey(block);
+        return copy(store, blockContainer);
+    }
 
-        blocksContainer.set(blockKey, PersistentDataType.TAG_CONTAINER, container);
-        chunkContainer.set(TAG, PersistentDataType.TAG_CONTAINER, blocksContainer);
+    /**
+     * Stores a copy of the given container for the given block. The chunk's persistent data is updated
+     * when the chunk is saved or unloaded, or when {@link #flush(Chunk)} is called.
+     * @param block The block to store the container for.
+     * @param container The container to store. Empty containers remove the block's entry.
+     */
+    public static void writeContainer(Block block, @NotNull PersistentDataContainer container) {
+        ChunkBlockStore store = getStore(block);
+        store.put(pack(block), copy(store, container));
     }
 
     public static void modifyContainer(Block block, Consumer<PersistentDataContainer> consumer) {
-        PersistentDataContainer container = getContainer(block);
+        ChunkBlockStore store = getStore(block);
+        long packed = pack(block);
+
+        PersistentDataContainer existing = store.get(packed);
+        PersistentDataContainer container = existing == null ? store.newContainer() : copy(store, existing);
+
         consumer.accept(container);
-        writeContainer(block, container);
+        store.put(packed, container);
     }
 
     public static List<PersistentDataContainer> getBlockContainersInChunk(Chunk chunk) {
-        PersistentDataContainer chunkContainer = chunk.getPersistentDataContainer().get(TAG, PersistentDataType.TAG_CONTAINER);
+        ChunkBlockStore store = getStore(chunk);
 
         List<PersistentDataContainer> blocks = new LinkedList<>();
-        if (chunkContainer == null) {
-            return blocks;
-        }
-
-        Set<NamespacedKey> keys = chunkContainer.getKeys();
-        for (NamespacedKey key : keys) {
-            PersistentDataContainer container = chunkContainer.get(key, PersistentDataType.TAG_CONTAINER);
-
-            if (container != null) {
-                blocks.add(container);
-            }
+        for (PersistentDataContainer container : store.getBlocks().values()) {
+            blocks.add(copy(store, container));
         }
 
         return blocks;
     }
 
     public static Map<Block, PersistentDataContainer> getBlockContainerMap(Chunk chunk) {
-        PersistentDataContainer chunkContainer = chunk.getPersistentDataContainer().get(TAG, PersistentDataType.TAG_CONTAINER);
+        ChunkBlockStore store = getStore(chunk);
+        World world = chunk.getWorld();
+        int baseX = chunk.getX() << 4;
+        int baseZ = chunk.getZ() << 4;
 
         Map<Block, PersistentDataContainer> blocks = new HashMap<>();
-        if (chunkContainer == null) {
-            return blocks;
+        store.getBlocks().forEach((packed, container) -> {
+            Block block = world.getBlockAt(
+                    baseX + ChunkBlockStore.unpackLocalX(packed),
+                    ChunkBlockStore.unpackY(packed),
+                    baseZ + ChunkBlockStore.unpackLocalZ(packed)
+            );
+
+            blocks.put(block, copy(store, container));
+        });
+
+        return blocks;
+    }
+
+    /**
+     * Writes any changed block containers in the given chunk to its persistent data.
+     * @param chunk The chunk to flush.
+     */
+    public static void flush(Chunk chunk) {
+        Map<Long, ChunkBlockStore> worldStores = STORES.get(chunk.getWorld().getUID());
+        if (worldStores == null) {
+            return;
         }
 
-        Set<NamespacedKey> keys = chunkContainer.getKeys();
-        for (NamespacedKey key : keys) {
-            PersistentDataContainer container = chunkContainer.get(key, PersistentDataType.TAG_CONTAINER);
+        ChunkBlockStore store = worldStores.get(chunk.getChunkKey());
+        if (store != null) {
+            store.flush(chunk);
+        }
+    }
 
-            if (container != null) {
-                try {
-                    Location location = locationFromKey(key);
-                    location.setWorld(chunk.getWorld());
-                    Block block = location.getBlock();
+    /**
+     * Writes any changed block containers in the given world to their chunks' persistent data.
+     * @param world The world to flush.
+     */
+    public static void flush(World world) {
+        Map<Long, ChunkBlockStore> worldStores = STORES.get(world.getUID());
+        if (worldStores == null) {
+            return;
+        }
 
-                    blocks.put(block, container);
-                } catch (IllegalStateException ignored) {}
+        worldStores.values().forEach(store -> {
+            if (store.isDirty()) {
+                store.flush(world.getChunkAt(store.getChunkX(), store.getChunkZ()));
             }
+        });
+    }
+
+    /**
+     * Writes any changed block containers in every world to their chunks' persistent data.
+     */
+    public static void flushAll() {
+        for (World world : Bukkit.getWorlds()) {
+            flush(world);
         }
+    }
 
-        return blocks;
+    /**
+     * Flushes the given chunk and stops holding its block containers in memory.
+     * @param chunk The chunk being unloaded.
+     */
+    static void unload(Chunk chunk) {
+        Map<Long, ChunkBlockStore> worldStores = STORES.get(chunk.getWorld().getUID());
+        if (worldStores == null) {
+            return;
+        }
+
+        ChunkBlockStore store = worldStores.remove(chunk.getChunkKey());
+        if (store != null) {
+            store.flush(chunk);
+        }
+    }
+
+    /**
+     * Flushes the given world and stops holding any of its block containers in memory.
+     * @param world The world being unloaded.
+     */
+    static void unload(World world) {
+        flush(world);
+        STORES.remove(world.getUID());
     }
 }
@@ -0,0 +1,146 @@
+package wbs.utils.util.persistent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Encodes the block containers of one chunk section into a single byte array.<p>
+ * The format is a varint format version and entry count, followed by each entry as a varint position
+ * within the section ({@code y << 8 | z << 4 | x}), a payload type byte, a varint payload length, and
+ * the payload itself. Entries are written in position order.
+ */
+final class BlockSectionCodec {
+    private BlockSectionCodec() {}
+
+    static final int VERSION = 1;
+
+    /**
+     * A payload holding a persistent data container, as written by
+     * {@link org.bukkit.persistence.PersistentDataContainer#serializeToBytes()}.
+     */
+    static final byte PAYLOAD_CONTAINER = 0;
+
+    static int toSectionIndex(int localX, int localY, int localZ) {
+        return (localY & 15) << 8 | (localZ & 15) << 4 | (localX & 15);
+    }
+
+    static int sectionIndexX(int index) {
+        return index & 15;
+    }
+
+    static int sectionIndexY(int index) {
+        return (index >> 8) & 15;
+    }
+
+    static int sectionIndexZ(int index) {
+        return (index >> 4) & 15;
+    }
+
+    /**
+     * Encodes the given container payloads.
+     * @param payloads The serialized containers, by section index.
+     * @return The encoded section.
+     */
+    static byte[] encode(@NotNull SortedMap<Integer, byte[]> payloads) {
+        int estimatedSize = 8;
+        for (byte[] payload : payloads.values()) {
+            estimatedSize += payload.length + 6;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(estimatedSize);
+        writeVarInt(out, VERSION);
+        writeVarInt(out, payloads.size());
+
+        for (Map.Entry<Integer, byte[]> entry : payloads.entrySet()) {
+            byte[] payload = entry.getValue();
+
+            writeVarInt(out, entry.getKey());
+            out.write(PAYLOAD_CONTAINER);
+            writeVarInt(out, payload.length);
+            out.write(payload, 0, payload.length);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes an encoded section, passing each container payload to the given consumer.
+     * @param bytes The encoded section.
+     * @param consumer The consumer to accept each section index and its payload.
+     * @throws IllegalArgumentException If the bytes aren't a valid encoded section.
+     */
+    static void decode(byte @NotNull [] bytes, @NotNull PayloadConsumer consumer) {
+        Reader reader = new Reader(bytes);
+
+        int version = reader.readVarInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported block section version: " + version);
+        }
+
+        int count = reader.readVarInt();
+        for (int i = 0; i < count; i++) {
+            int index = reader.readVarInt();
+            byte type = reader.readByte();
+            int length = reader.readVarInt();
+            byte[] payload = reader.readBytes(length);
+
+            if (type == PAYLOAD_CONTAINER) {
+                consumer.accept(index, payload);
+            }
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    @FunctionalInterface
+    interface PayloadConsumer {
+        void accept(int sectionIndex, byte[] payload);
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position = 0;
+
+        private Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private byte readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Unexpected end of block section.");
+            }
+            return bytes[position++];
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte next = readByte();
+                value |= (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Varint too long in block section.");
+        }
+
+        private byte[] readBytes(int length) {
+            if (length < 0 || position + length > bytes.length) {
+                throw new IllegalArgumentException("Invalid payload length in block section: " + length);
+            }
+            byte[] read = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return read;
+        }
+    }
+}
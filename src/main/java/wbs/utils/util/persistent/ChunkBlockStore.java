@@ -0,0 +1,333 @@
+package wbs.utils.util.persistent;
+
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.persistence.PersistentDataAdapterContext;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import wbs.utils.WbsUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * The block containers of a single chunk, read from the chunk's persistent data once and held in memory
+ * until the chunk is saved or unloaded.<p>
+ * Blocks are keyed by {@link #pack(int, int, int)}, which combines the block's y coordinate with its x
+ * and z coordinates relative to the chunk.<p>
+ * Containers read from packed sections are kept as bytes until first accessed, and written back without
+ * re-encoding if they weren't changed. Containers in either storage format are read, and written in the
+ * current {@link BlockChunkStorageUtil.StorageFormat}, so chunks migrate between formats as they're saved.<p>
+ * Sections that can't be decoded, such as those written by a newer format version, are left in the chunk
+ * unchanged. Blocks in those sections can't be written as packed sections until they can be decoded.
+ */
+final class ChunkBlockStore {
+
+    private static final String SECTION_PREFIX = "section_";
+
+    /**
+     * Packs block coordinates into a key unique within a chunk.
+     * @param x The block's x coordinate.
+     * @param y The block's y coordinate.
+     * @param z The block's z coordinate.
+     * @return The packed key.
+     */
+    static long pack(int x, int y, int z) {
+        return ((long) y << 8) | ((x & 15) << 4) | (z & 15);
+    }
+
+    static int unpackLocalX(long packed) {
+        return (int) (packed >> 4) & 15;
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed >> 8);
+    }
+
+    static int unpackLocalZ(long packed) {
+        return (int) packed & 15;
+    }
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final PersistentDataAdapterContext context;
+    private final Map<Long, PersistentDataContainer> blocks = new HashMap<>();
+    // Containers read from packed sections that haven't been decoded yet
+    private final Map<Long, byte[]> encoded = new HashMap<>();
+    // Keys of the sections this store read or wrote, which it owns when rewriting the sections tag
+    private final Set<NamespacedKey> ownedSectionKeys = new HashSet<>();
+    // Y coordinates of sections that exist in the chunk but couldn't be decoded
+    private final Set<Integer> undecodableSections = new HashSet<>();
+    private boolean dirty = false;
+
+    ChunkBlockStore(@NotNull Chunk chunk) {
+        chunkX = chunk.getX();
+        chunkZ = chunk.getZ();
+
+        PersistentDataContainer chunkContainer = chunk.getPersistentDataContainer();
+        context = chunkContainer.getAdapterContext();
+
+        boolean hasContainers = readContainers(chunkContainer);
+        boolean hasSections = readSections(chunkContainer);
+
+        // Rewrite chunks stored in the other format on the next flush
+        dirty = switch (BlockChunkStorageUtil.getStorageFormat()) {
+            case CONTAINER_PER_BLOCK -> hasSections;
+            case PACKED_SECTIONS -> hasContainers;
+        };
+    }
+
+    private boolean readContainers(PersistentDataContainer chunkContainer) {
+        PersistentDataContainer blocksContainer = chunkContainer.get(BlockChunkStorageUtil.TAG, PersistentDataType.TAG_CONTAINER);
+        if (blocksContainer == null) {
+            return false;
+        }
+
+        for (NamespacedKey key : blocksContainer.getKeys()) {
+            PersistentDataContainer container = blocksContainer.get(key, PersistentDataType.TAG_CONTAINER);
+            if (container == null) {
+                continue;
+            }
+
+            long packed;
+            try {
+                packed = BlockChunkStorageUtil.packedFromKey(key);
+            } catch (IllegalStateException | NumberFormatException e) {
+                continue;
+            }
+
+            blocks.put(packed, container);
+        }
+
+        return true;
+    }
+
+    private boolean readSections(PersistentDataContainer chunkContainer) {
+        PersistentDataContainer sectionsContainer = chunkContainer.get(BlockChunkStorageUtil.SECTIONS_TAG, PersistentDataType.TAG_CONTAINER);
+        if (sectionsContainer == null) {
+            return false;
+        }
+
+        for (NamespacedKey key : sectionsContainer.getKeys()) {
+            byte[] bytes = sectionsContainer.get(key, PersistentDataType.BYTE_ARRAY);
+            if (bytes == null || !key.value().startsWith(SECTION_PREFIX)) {
+                continue;
+            }
+
+            int sectionY;
+            try {
+                sectionY = Integer.parseInt(key.value().substring(SECTION_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            // Decode fully before using any entries, so a section that fails part way is left untouched
+            Map<Long, byte[]> sectionPayloads = new HashMap<>();
+            try {
+                BlockSectionCodec.decode(bytes, (index, payload) -> {
+                    long packed = pack(
+                            BlockSectionCodec.sectionIndexX(index),
+                            (sectionY << 4) + BlockSectionCodec.sectionIndexY(index),
+                            BlockSectionCodec.sectionIndexZ(index)
+                    );
+                    sectionPayloads.put(packed, payload);
+                });
+            } catch (IllegalArgumentException e) {
+                undecodableSections.add(sectionY);
+                WbsUtils.getInstance().getLogger().warning("Preserving unreadable block section " + key.value()
+                        + " in chunk " + chunkX + ", " + chunkZ + ": " + e.getMessage());
+                continue;
+            }
+
+            sectionPayloads.forEach((packed, payload) -> {
+                // Sections are only written by newer versions, so take priority over containers
+                blocks.remove(packed);
+                encoded.put(packed, payload);
+            });
+            ownedSectionKeys.add(key);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the stored container for a block, without copying it.
+     * @param packed The block's packed key.
+     * @return The stored container, or null if the block has none.
+     */
+    @Nullable
+    PersistentDataContainer get(long packed) {
+        PersistentDataContainer container = blocks.get(packed);
+        if (container == null) {
+            byte[] bytes = encoded.remove(packed);
+            if (bytes != null) {
+                container = decode(bytes);
+                blocks.put(packed, container);
+            }
+        }
+        return container;
+    }
+
+    /**
+     * Stores a block's container, removing it if it's empty.
+     * @param packed The block's packed key.
+     * @param container The container to store, which must not be modified afterwards.
+     */
+    void put(long packed, @NotNull PersistentDataContainer container) {
+        boolean hadEncoded = encoded.remove(packed) != null;
+
+        if (container.isEmpty()) {
+            if (blocks.remove(packed) != null || hadEncoded) {
+                dirty = true;
+            }
+        } else {
+            blocks.put(packed, container);
+            dirty = true;
+        }
+    }
+
+    @NotNull
+    PersistentDataContainer newContainer() {
+        return context.newPersistentDataContainer();
+    }
+
+    /**
+     * Decodes every stored container.
+     * @return An unmodifiable view of every stored container, by packed key.
+     */
+    @NotNull
+    Map<Long, PersistentDataContainer> getBlocks() {
+        if (!encoded.isEmpty()) {
+            encoded.forEach((packed, bytes) -> blocks.put(packed, decode(bytes)));
+            encoded.clear();
+        }
+        return Collections.unmodifiableMap(blocks);
+    }
+
+    int getChunkX() {
+        return chunkX;
+    }
+
+    int getChunkZ() {
+        return chunkZ;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Writes the stored containers to the chunk's persistent data in the current storage format, if any
+     * have changed since they were last written.
+     * @param chunk The chunk this store was loaded from.
+     */
+    void flush(@NotNull Chunk chunk) {
+        if (!dirty) {
+            return;
+        }
+
+        PersistentDataContainer chunkContainer = chunk.getPersistentDataContainer();
+        switch (BlockChunkStorageUtil.getStorageFormat()) {
+            case CONTAINER_PER_BLOCK -> {
+                writeSections(chunkContainer, new TreeMap<>());
+                writeContainers(chunkContainer);
+            }
+            case PACKED_SECTIONS -> {
+                SortedMap<Integer, SortedMap<Integer, byte[]>> sections = new TreeMap<>();
+                blocks.forEach((packed, container) -> addToSection(sections, packed, encode(container)));
+                encoded.forEach((packed, bytes) -> addToSection(sections, packed, bytes));
+
+                for (int sectionY : sections.keySet()) {
+                    if (undecodableSections.contains(sectionY)) {
+                        // Writing this section would overwrite data that couldn't be read
+                        WbsUtils.getInstance().getLogger().warning("Not saving blocks in chunk " + chunkX + ", " + chunkZ
+                                + ", as section " + sectionY + " couldn't be read.");
+                        return;
+                    }
+                }
+
+                chunkContainer.remove(BlockChunkStorageUtil.TAG);
+                writeSections(chunkContainer, sections);
+            }
+        }
+
+        dirty = false;
+    }
+
+    private void writeContainers(PersistentDataContainer chunkContainer) {
+        Map<Long, PersistentDataContainer> allBlocks = getBlocks();
+        if (allBlocks.isEmpty()) {
+            chunkContainer.remove(BlockChunkStorageUtil.TAG);
+            return;
+        }
+
+        PersistentDataContainer blocksContainer = context.newPersistentDataContainer();
+        allBlocks.forEach((packed, container) ->
+                blocksContainer.set(BlockChunkStorageUtil.keyFromPacked(chunkX, chunkZ, packed), PersistentDataType.TAG_CONTAINER, container)
+        );
+        chunkContainer.set(BlockChunkStorageUtil.TAG, PersistentDataType.TAG_CONTAINER, blocksContainer);
+    }
+
+    /**
+     * Replaces the sections this store owns with the given sections, leaving any others in the chunk as they are.
+     */
+    private void writeSections(PersistentDataContainer chunkContainer, SortedMap<Integer, SortedMap<Integer, byte[]>> sections) {
+        PersistentDataContainer sectionsContainer = chunkContainer.get(BlockChunkStorageUtil.SECTIONS_TAG, PersistentDataType.TAG_CONTAINER);
+        if (sectionsContainer == null) {
+            if (sections.isEmpty()) {
+                ownedSectionKeys.clear();
+                return;
+            }
+            sectionsContainer = context.newPersistentDataContainer();
+        }
+
+        for (NamespacedKey key : ownedSectionKeys) {
+            sectionsContainer.remove(key);
+        }
+        ownedSectionKeys.clear();
+
+        for (Map.Entry<Integer, SortedMap<Integer, byte[]>> section : sections.entrySet()) {
+            NamespacedKey key = new NamespacedKey(WbsUtils.getInstance(), SECTION_PREFIX + section.getKey());
+            sectionsContainer.set(key, PersistentDataType.BYTE_ARRAY, BlockSectionCodec.encode(section.getValue()));
+            ownedSectionKeys.add(key);
+        }
+
+        if (sectionsContainer.isEmpty()) {
+            chunkContainer.remove(BlockChunkStorageUtil.SECTIONS_TAG);
+        } else {
+            chunkContainer.set(BlockChunkStorageUtil.SECTIONS_TAG, PersistentDataType.TAG_CONTAINER, sectionsContainer);
+        }
+    }
+
+    private static void addToSection(SortedMap<Integer, SortedMap<Integer, byte[]>> sections, long packed, byte[] payload) {
+        int y = unpackY(packed);
+        int index = BlockSectionCodec.toSectionIndex(unpackLocalX(packed), y, unpackLocalZ(packed));
+
+        sections.computeIfAbsent(y >> 4, sectionY -> new TreeMap<>()).put(index, payload);
+    }
+
+    private PersistentDataContainer decode(byte[] bytes) {
+        PersistentDataContainer container = context.newPersistentDataContainer();
+        try {
+            container.readFromBytes(bytes, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read block container in chunk " + chunkX + ", " + chunkZ, e);
+        }
+        return container;
+    }
+
+    private byte[] encode(PersistentDataContainer container) {
+        try {
+            return container.serializeToBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write block container in chunk " + chunkX + ", " + chunkZ, e);
+        }
+    }
+}
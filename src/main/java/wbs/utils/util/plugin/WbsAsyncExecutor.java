@@ -0,0 +1,110 @@
+package wbs.utils.util.plugin;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor dedicated to a single plugin's asynchronous work, running each task on its own
+ * virtual thread, so blocking work such as database I/O doesn't compete with other plugins
+ * for the shared Bukkit async pool.<p>
+ * The number of tasks running at once may be limited, in which case further tasks wait for a
+ * running task to finish before starting.
+ */
+@SuppressWarnings("unused")
+public class WbsAsyncExecutor implements Executor {
+
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private volatile Semaphore permits;
+    private volatile int maxConcurrency;
+
+    /**
+     * @param name The name to prefix threads created by this executor with.
+     * @param maxConcurrency The maximum number of tasks to run at once, or 0 for no limit.
+     */
+    public WbsAsyncExecutor(@NotNull String name, int maxConcurrency) {
+        ThreadFactory factory = Thread.ofVirtual().name(name + "-async-", 0).factory();
+        executor = Executors.newThreadPerTaskExecutor(factory);
+        setMaxConcurrency(maxConcurrency);
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        Semaphore permits = this.permits;
+        executor.execute(() -> {
+            if (permits != null) {
+                waiting.incrementAndGet();
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+
+            running.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                running.decrementAndGet();
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the maximum number of tasks to run at once. Only affects tasks submitted after this call.
+     * @param maxConcurrency The maximum number of concurrent tasks, or 0 for no limit.
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 0) throw new IllegalArgumentException("Max concurrency cannot be negative.");
+
+        this.maxConcurrency = maxConcurrency;
+        permits = maxConcurrency == 0 ? null : new Semaphore(maxConcurrency);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return The number of tasks currently running.
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * @return The number of tasks waiting for a running task to finish before starting.
+     */
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * Stops accepting new tasks, and waits for running tasks to complete.
+     * @param timeout The maximum time to wait.
+     * @param unit The unit of the given timeout.
+     * @return True if all tasks finished, false if the timeout elapsed first.
+     */
+    public boolean shutdown(long timeout, @NotNull TimeUnit unit) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+}
@@ -13,7 +13,6 @@ import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
@@ -22,11 +21,14 @@ import org.bukkit.event.Listener;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.BoundingBox;
 import org.jetbrains.annotations.NotNull;
+import wbs.utils.util.LruCache;
 import wbs.utils.util.WbsEventUtils;
 import wbs.utils.util.WbsFileUtil;
 import wbs.utils.util.commands.brigadier.WbsErrorsSubcommand;
 import wbs.utils.util.commands.brigadier.WbsReloadSubcommand;
+import wbs.utils.util.entities.PlayerSpatialIndex;
 import wbs.utils.util.plugin.bootstrap.WbsBootstrapSettings;
 import wbs.utils.util.pluginhooks.PlaceholderAPIWrapper;
 import wbs.utils.util.string.WbsStrings;
@@ -38,9 +40,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -63,11 +70,17 @@ public abstract class WbsPlugin extends JavaPlugin {
 		Bukkit.getPluginManager().registerEvents(listener, this);
 	}
 
+	private static final int MAX_COLOURISED_CACHE_SIZE = 1024;
+
 	private ChatColor colour = ChatColor.GREEN;
 	private ChatColor highlight = ChatColor.BLUE;
 	private ChatColor errorColour = ChatColor.RED;
 	public String prefix;
 
+	// Colourised strings by their raw form, valid for the current displays
+	private final LruCache<String, String> colourisedCache = new LruCache<>(MAX_COLOURISED_CACHE_SIZE);
+	private int displaysVersion = 0;
+
 	@Override
 	public abstract void onEnable();
 
@@ -83,6 +96,17 @@ public abstract class WbsPlugin extends JavaPlugin {
 		colour = newColour;
 		highlight = newHighlight;
 		errorColour = newErrorColour;
+
+		colourisedCache.clear();
+		displaysVersion++;
+	}
+
+	/**
+	 * @return A counter incremented each time the displays are set, so formatting cached elsewhere can
+	 * tell when it's out of date.
+	 */
+	public int getDisplaysVersion() {
+		return displaysVersion;
 	}
 
 	public ChatColor getColour() {
@@ -107,17 +131,46 @@ public abstract class WbsPlugin extends JavaPlugin {
 	}
 
 	/**
-	 * Colourize based on the configured plugin colours
+	 * Colourize based on the configured plugin colours.<p>
+	 * Recently used results are cached until the displays are next changed, so repeated messages are only
+	 * parsed once.
 	 * @param string The string to colourize
 	 * @return The colourized string
 	 */
 	public String dynamicColourise(String string) {
-		string = string.replaceAll("&r", "" + colour); // Replace default with the main colour
-		string = string.replaceAll("&h", "" + highlight); // Replace &h with the highlight colour
-		string = string.replaceAll("&w", "" + errorColour); // Replace &w with the error colour
-		string = string.replaceAll("&x", "" + errorColour); // Replace &x with the error colour
-		string = WbsStrings.colourise(string);
-		return string;
+		return colourisedCache.computeIfAbsent(string, raw -> WbsStrings.colourise(replaceDisplayCodes(raw)));
+	}
+
+	/**
+	 * Replaces "&amp;r" with the main colour, "&amp;h" with the highlight colour, and "&amp;w" and "&amp;x"
+	 * with the error colour, in a single pass.
+	 */
+	private String replaceDisplayCodes(String string) {
+		if (string.indexOf('&') == -1) {
+			return string;
+		}
+
+		int length = string.length();
+		StringBuilder builder = new StringBuilder(length + 8);
+		for (int i = 0; i < length; i++) {
+			char current = string.charAt(i);
+			if (current == '&' && i + 1 < length) {
+				ChatColor replacement = switch (string.charAt(i + 1)) {
+					case 'r' -> colour;
+					case 'h' -> highlight;
+					case 'w', 'x' -> errorColour;
+					default -> null;
+				};
+
+				if (replacement != null) {
+					builder.append(replacement);
+					i++;
+					continue;
+				}
+			}
+			builder.append(current);
+		}
+		return builder.toString();
 	}
 
 	public List<String> colouriseAll(Collection<String> collection) {
@@ -279,10 +332,8 @@ public abstract class WbsPlugin extends JavaPlugin {
 		if (world == null)
 			throw new IllegalArgumentException("Location had an invalid world.");
 
-		for (Entity entity : world.getNearbyEntities(loc, radius, radius, radius)) {
-			if (entity instanceof Player) {
-				sendActionBar(message, (Player) entity);
-			}
+		for (Player player : PlayerSpatialIndex.getOverlapping(world, BoundingBox.of(loc, radius, radius, radius))) {
+			sendActionBar(message, player);
 		}
 	}
 
@@ -577,6 +628,185 @@ public abstract class WbsPlugin extends JavaPlugin {
 		}.runTaskTimerAsynchronously(this, delay, interval).getTaskId();
 	}
 
+	private WbsAsyncExecutor asyncExecutor;
+	private boolean asyncExecutorShutdown = false;
+	private final Executor mainThreadExecutor = command -> {
+		if (Bukkit.isPrimaryThread()) {
+			command.run();
+		} else {
+			runSync(command);
+		}
+	};
+
+	/**
+	 * Gets this plugin's dedicated executor for asynchronous work, creating it if needed.
+	 * Unlike {@link #runAsync(Runnable)}, tasks run here don't compete with other plugins'
+	 * tasks on the shared Bukkit async pool.
+	 * @return The async executor for this plugin.
+	 * @throws IllegalStateException If the executor has been shut down and the plugin is disabled.
+	 */
+	@NotNull
+	public synchronized WbsAsyncExecutor getAsyncExecutor() {
+		if (asyncExecutor == null || asyncExecutor.isShutdown()) {
+			if (asyncExecutorShutdown && !isEnabled()) {
+				throw new IllegalStateException(getName() + " is disabled, and can't run new async tasks.");
+			}
+
+			asyncExecutorShutdown = false;
+			asyncExecutor = new WbsAsyncExecutor(getName(), 0);
+		}
+		return asyncExecutor;
+	}
+
+	/**
+	 * @return An executor that runs tasks on the main thread; immediately if already on the
+	 * main thread, or on the next tick otherwise.
+	 */
+	@NotNull
+	public Executor getMainThreadExecutor() {
+		return mainThreadExecutor;
+	}
+
+	/**
+	 * Supplies a value asynchronously on this plugin's {@link #getAsyncExecutor() async executor}.
+	 * If the returned future is cancelled before the supplier starts, the supplier is not run.
+	 * @param supplier The supplier to run asynchronously.
+	 * @return A future completed with the supplied value, on the async thread.
+	 * @param <T> The type of value supplied.
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> supplyAsync(@NotNull Supplier<T> supplier) {
+		return supplyOn(supplier, getAsyncExecutor());
+	}
+
+	/**
+	 * Runs a block of code asynchronously on this plugin's {@link #getAsyncExecutor() async executor}.
+	 * If the returned future is cancelled before the runnable starts, it is not run.
+	 * @param runnable The runnable to execute asynchronously.
+	 * @return A future completed once the runnable finishes, on the async thread.
+	 */
+	@NotNull
+	public CompletableFuture<Void> runAsyncFuture(@NotNull Runnable runnable) {
+		return supplyAsync(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Supplies a value asynchronously after a delay, on this plugin's {@link #getAsyncExecutor() async executor}.
+	 * @param supplier The supplier to run asynchronously.
+	 * @param ticksLater The number of ticks to wait before running.
+	 * @return A future completed with the supplied value, on the async thread.
+	 * @param <T> The type of value supplied.
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> supplyLaterAsync(@NotNull Supplier<T> supplier, long ticksLater) {
+		Executor delayed = CompletableFuture.delayedExecutor(ticksLater * 50, TimeUnit.MILLISECONDS, getAsyncExecutor());
+		return supplyOn(supplier, delayed);
+	}
+
+	/**
+	 * Supplies a value on the main thread, where it's safe to do minecraft related operations.
+	 * @param supplier The supplier to run on the main thread.
+	 * @return A future completed with the supplied value, on the main thread.
+	 * @param <T> The type of value supplied.
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> supplySync(@NotNull Supplier<T> supplier) {
+		return supplyOn(supplier, mainThreadExecutor);
+	}
+
+	/**
+	 * Returns a future that completes on the main thread once the given future completes, so that
+	 * any dependent stages added to it run on the main thread.
+	 * @param future The future to hop back to the main thread from.
+	 * @return A future completed with the same result, on the main thread.
+	 * @param <T> The result type of the future.
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> onMainThread(@NotNull CompletableFuture<T> future) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		future.whenComplete((value, throwable) -> mainThreadExecutor.execute(() -> {
+			if (throwable != null) {
+				result.completeExceptionally(throwable);
+			} else {
+				result.complete(value);
+			}
+		}));
+		// Propagate cancellation back to the source
+		result.whenComplete((value, throwable) -> {
+			if (result.isCancelled()) {
+				future.cancel(false);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Logs the failure of a future whose result is otherwise discarded, so exceptions in fire-and-forget
+	 * tasks aren't lost. Cancellation isn't logged.
+	 * @param future The future to watch.
+	 * @param description A description of the task, included in the log message.
+	 * @return The given future.
+	 * @param <T> The result type of the future.
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> logFailure(@NotNull CompletableFuture<T> future, @NotNull String description) {
+		future.whenComplete((value, throwable) -> {
+			if (throwable == null || future.isCancelled()) {
+				return;
+			}
+
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+					? throwable.getCause()
+					: throwable;
+			getLogger().log(Level.SEVERE, "Async task failed: " + description, cause);
+		});
+		return future;
+	}
+
+	private <T> CompletableFuture<T> supplyOn(@NotNull Supplier<T> supplier, @NotNull Executor executor) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		executor.execute(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				future.complete(supplier.get());
+			} catch (Throwable throwable) {
+				future.completeExceptionally(throwable);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Stops this plugin's async executor from accepting new tasks, and waits briefly for running
+	 * tasks to finish.
+	 */
+	protected void shutdownAsyncExecutor() {
+		WbsAsyncExecutor executor;
+		synchronized (this) {
+			executor = asyncExecutor;
+			asyncExecutor = null;
+			asyncExecutorShutdown = true;
+		}
+
+		if (executor != null && !executor.shutdown(10, TimeUnit.SECONDS)) {
+			getLogger().warning("Async tasks were still running 10 seconds after shutdown.");
+		}
+	}
+
+	/**
+	 * Shuts down this plugin's async executor. Plugins overriding this should call
+	 * {@code super.onDisable()} after their own disable logic.
+	 */
+	@Override
+	public void onDisable() {
+		shutdownAsyncExecutor();
+	}
+
 	// Overriding this to prevent the pointless warnings when replace is false and the file already exists.
 	@Override
 	public void saveResource(String resourcePath, boolean replace) {
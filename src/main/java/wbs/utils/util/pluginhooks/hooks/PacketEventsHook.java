@@ -7,6 +7,9 @@ import com.github.retrooper.packetevents.protocol.entity.EntityPositionData;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.entity.type.EntityType;
 import com.github.retrooper.packetevents.protocol.item.ItemStack;
+import com.github.retrooper.packetevents.protocol.particle.Particle;
+import com.github.retrooper.packetevents.protocol.particle.data.ParticleData;
+import com.github.retrooper.packetevents.protocol.particle.type.ParticleType;
 import com.github.retrooper.packetevents.protocol.player.GameMode;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.world.Location;
@@ -14,6 +17,7 @@ import com.github.retrooper.packetevents.resources.ResourceLocation;
 import com.github.retrooper.packetevents.settings.PacketEventsSettings;
 import com.github.retrooper.packetevents.util.TimeStampMode;
 import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.util.Vector3f;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.play.server.*;
 import io.github.retrooper.packetevents.util.SpigotConversionUtil;
@@ -24,11 +28,22 @@ import org.bukkit.util.Vector;
 import org.intellij.lang.annotations.Subst;
 import org.jetbrains.annotations.Nullable;
 import wbs.utils.WbsUtils;
+import wbs.utils.util.particles.ParticleBatch;
 import wbs.utils.util.pluginhooks.PluginHook;
 
 import java.util.*;
 
 public final class PacketEventsHook extends PluginHook implements PacketEventsWrapper {
+    /**
+     * The most packets to put in a single bundle, below the client's limit.
+     */
+    private static final int MAX_BUNDLE_SIZE = 4000;
+
+    private final Map<Player, List<PacketWrapper<?>>> queuedPackets = new LinkedHashMap<>();
+    // The last metadata queued to each viewer, by entity ID then metadata index. Weak so viewers that log
+    // out are dropped, as a rejoining player gets a new Player object.
+    private final Map<Player, Map<Integer, Map<Integer, EntityData<?>>>> lastMetadata = new WeakHashMap<>();
+
     public PacketEventsHook() {
         super(PLUGIN_NAME);
     }
@@ -83,6 +98,8 @@ public final class PacketEventsHook extends PluginHook implements PacketEventsWr
     }
 
     public void removeEntity(Entity entity, Player ... players) {
+        forgetMetadata(entity, players);
+
         WrapperPlayServerDestroyEntities packet = new WrapperPlayServerDestroyEntities(entity.getEntityId());
 
         sendPacket(packet, players);
@@ -97,6 +114,10 @@ public final class PacketEventsHook extends PluginHook implements PacketEventsWr
 
 
     public void updateEntityPosition(Entity entity, Player ... players) {
+        sendPacket(createPositionPacket(entity), players);
+    }
+
+    private static WrapperPlayServerEntityPositionSync createPositionPacket(Entity entity) {
         Vector velocity = entity.getVelocity();
         EntityPositionData entityPositionData = new EntityPositionData(
                 new Vector3d(entity.getX(), entity.getY(), entity.getZ()),
@@ -104,9 +125,7 @@ public final class PacketEventsHook extends PluginHook implements PacketEventsWr
                 entity.getYaw(),
                 entity.getPitch()
         );
-        WrapperPlayServerEntityPositionSync packet = new WrapperPlayServerEntityPositionSync(entity.getEntityId(), entityPositionData, entity.isOnGround());
-
-        sendPacket(packet, players);
+        return new WrapperPlayServerEntityPositionSync(entity.getEntityId(), entityPositionData, entity.isOnGround());
     }
 
     public void updateEntity(Entity entity, Player ... players) {
@@ -116,7 +135,105 @@ public final class PacketEventsHook extends PluginHook implements PacketEventsWr
         sendPacket(packet, players);
     }
 
+    public void queueEntityUpdate(Entity entity, Collection<? extends Player> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+
+        List<EntityData<?>> metadata = SpigotConversionUtil.getEntityMetadata(entity);
+
+        // Viewers are usually in sync, so reuse the packet while the changed values match
+        List<EntityData<?>> lastChanged = null;
+        WrapperPlayServerEntityMetadata lastPacket = null;
+
+        for (Player player : players) {
+            Map<Integer, EntityData<?>> previous = lastMetadata
+                    .computeIfAbsent(player, key -> new HashMap<>())
+                    .computeIfAbsent(entity.getEntityId(), id -> new HashMap<>());
+
+            List<EntityData<?>> changed = new ArrayList<>(metadata.size());
+            for (EntityData<?> data : metadata) {
+                EntityData<?> last = previous.put(data.getIndex(), data);
+                if (last == null || !Objects.equals(last.getValue(), data.getValue())) {
+                    changed.add(data);
+                }
+            }
+
+            if (changed.isEmpty()) {
+                continue;
+            }
+
+            if (lastPacket == null || !changed.equals(lastChanged)) {
+                lastChanged = changed;
+                lastPacket = new WrapperPlayServerEntityMetadata(entity.getEntityId(), changed);
+            }
+
+            queuedPackets.computeIfAbsent(player, key -> new ArrayList<>()).add(lastPacket);
+        }
+    }
+
+    private void forgetMetadata(Entity entity, Player ... players) {
+        for (Player player : players) {
+            Map<Integer, Map<Integer, EntityData<?>>> viewerMetadata = lastMetadata.get(player);
+            if (viewerMetadata != null) {
+                viewerMetadata.remove(entity.getEntityId());
+                if (viewerMetadata.isEmpty()) {
+                    lastMetadata.remove(player);
+                }
+            }
+        }
+    }
+
+    public void queueEntityPosition(Entity entity, Collection<? extends Player> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+
+        queue(createPositionPacket(entity), players);
+    }
+
+    private void queue(PacketWrapper<?> packet, Collection<? extends Player> players) {
+        for (Player player : players) {
+            queuedPackets.computeIfAbsent(player, key -> new ArrayList<>()).add(packet);
+        }
+    }
+
+    public void flushQueuedPackets() {
+        if (queuedPackets.isEmpty()) {
+            return;
+        }
+
+        queuedPackets.forEach((player, packets) -> {
+            User user = getUser(player);
+            if (user == null) {
+                return;
+            }
+
+            if (packets.size() == 1) {
+                user.writePacket(packets.getFirst());
+            } else {
+                // Bundled packets are handled by the client on the same frame
+                for (int start = 0; start < packets.size(); start += MAX_BUNDLE_SIZE) {
+                    int end = Math.min(start + MAX_BUNDLE_SIZE, packets.size());
+
+                    user.writePacket(new WrapperPlayServerBundle());
+                    for (int i = start; i < end; i++) {
+                        user.writePacket(packets.get(i));
+                    }
+                    user.writePacket(new WrapperPlayServerBundle());
+                }
+            }
+
+            user.flushPackets();
+        });
+
+        queuedPackets.clear();
+    }
+
     public void showFakeEntity(Entity entity, Player ... players) {
+        // The spawned entity starts with full metadata, so the next queued update should too
+        forgetMetadata(entity, players);
+
         EntityType entityType = SpigotConversionUtil.fromBukkitEntityType(entity.getType());
         Location location = SpigotConversionUtil.fromBukkitLocation(entity.getLocation());
 
@@ -127,6 +244,50 @@ public final class PacketEventsHook extends PluginHook implements PacketEventsWr
         updateEntity(entity, players);
     }
 
+    public boolean sendParticles(ParticleBatch batch, Collection<? extends Player> players) {
+        // Converting particle data between APIs isn't supported, so leave those to the Bukkit API.
+        if (batch.getData() != null) {
+            return false;
+        }
+
+        ParticleType<?> type = SpigotConversionUtil.fromBukkitParticle(batch.getParticle());
+        if (type == null) {
+            return false;
+        }
+
+        Particle<?> particle = toParticle(type);
+
+        List<WrapperPlayServerParticle> packets = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            packets.add(new WrapperPlayServerParticle(
+                    particle,
+                    batch.isForce(),
+                    new Vector3d(batch.getX(i), batch.getY(i), batch.getZ(i)),
+                    new Vector3f((float) batch.getOffsetX(i), (float) batch.getOffsetY(i), (float) batch.getOffsetZ(i)),
+                    (float) batch.getSpeed(i),
+                    batch.getCount(i)
+            ));
+        }
+
+        for (Player player : players) {
+            User user = getUser(player);
+            if (user == null) {
+                continue;
+            }
+
+            for (WrapperPlayServerParticle packet : packets) {
+                user.writePacket(packet);
+            }
+            user.flushPackets();
+        }
+
+        return true;
+    }
+
+    private static <T extends ParticleData> Particle<T> toParticle(ParticleType<T> type) {
+        return new Particle<>(type);
+    }
+
     public void sendGameModeChange(org.bukkit.GameMode bukkitGameMode, Player ... players) {
         GameMode gameMode = SpigotConversionUtil.fromBukkitGameMode(bukkitGameMode);
         WrapperPlayServerChangeGameState packet = new WrapperPlayServerChangeGameState(WrapperPlayServerChangeGameState.Reason.CHANGE_GAME_MODE, gameMode.getId());
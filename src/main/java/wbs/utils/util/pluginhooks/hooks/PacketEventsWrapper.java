@@ -7,6 +7,7 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import wbs.utils.util.particles.ParticleBatch;
 import wbs.utils.util.pluginhooks.PluginHookManager;
 import wbs.utils.util.pluginhooks.PluginHookWrapper;
 
@@ -56,6 +57,28 @@ public interface PacketEventsWrapper extends PluginHookWrapper {
         updateEntity(entity, players.toArray(Player[]::new));
     }
 
+    /**
+     * Queues a metadata update for the given entity, containing only the values that changed since the
+     * last update queued to each player for that entity. Nothing is queued to players whose values are
+     * unchanged. Removing or showing the entity to a player resets what was sent to them.<p>
+     * Queued packets are sent by {@link #flushQueuedPackets()}.
+     * @param entity The entity whose metadata to send.
+     * @param players The players to send to.
+     */
+    void queueEntityUpdate(Entity entity, Collection<? extends Player> players);
+
+    /**
+     * Queues a position update for the given entity, to be sent by {@link #flushQueuedPackets()}.
+     * @param entity The entity whose position to send.
+     * @param players The players to send to.
+     */
+    void queueEntityPosition(Entity entity, Collection<? extends Player> players);
+
+    /**
+     * Sends all queued packets, bundling each player's packets together and flushing once per player.
+     */
+    void flushQueuedPackets();
+
     void showFakeEntity(Entity entity, Player ... players);
     default void showFakeEntity(Entity entity, Collection<Player> players) {
         showFakeEntity(entity, players.toArray(Player[]::new));
@@ -66,6 +89,15 @@ public interface PacketEventsWrapper extends PluginHookWrapper {
         sendGameModeChange(bukkitGameMode, players.toArray(Player[]::new));
     }
 
+    /**
+     * Sends every particle in the batch to each player, writing all packets for a player before flushing once.
+     * @param batch The particles to send.
+     * @param players The players to send to.
+     * @return True if the particles were sent, or false if the batch's particle or data isn't supported,
+     * in which case nothing was sent.
+     */
+    boolean sendParticles(ParticleBatch batch, Collection<? extends Player> players);
+
     void sendToast(ItemStack icon, Component message, Frame displayType, Player ... players);
     default void sendToast(ItemStack icon, Component message, Frame displayType, Collection<Player> players) {
         sendToast(icon, message, displayType, players.toArray(Player[]::new));
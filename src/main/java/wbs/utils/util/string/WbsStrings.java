@@ -89,16 +89,24 @@ public final class WbsStrings {
 
 	private static final Pattern HEX_CODES = Pattern.compile("&#([0-9a-fA-F]{6})");
 
+	/**
+	 * Translates "&amp;" colour codes and "&amp;#rrggbb" hex codes into legacy colour codes.
+	 * @param string The string to colourise
+	 * @return The colourised string
+	 */
 	public static String colourise(String string) {
-		if (VersionUtil.getVersion() >= 16) {
+		if (VersionUtil.getVersion() >= 16 && string.contains("&#")) {
+			// Replace every hex code in one pass, rather than rescanning after each
 			Matcher rgbMatcher = HEX_CODES.matcher(string);
+			StringBuilder builder = new StringBuilder(string.length() + 32);
 
 			while (rgbMatcher.find()) {
-				String colour = string.substring(rgbMatcher.start(), rgbMatcher.end());
-
-				string = string.replace(colour, ChatColor.of(colour.substring(1)).toString());
-				rgbMatcher = HEX_CODES.matcher(string);
+				String colour = ChatColor.of("#" + rgbMatcher.group(1)).toString();
+				rgbMatcher.appendReplacement(builder, Matcher.quoteReplacement(colour));
 			}
+			rgbMatcher.appendTail(builder);
+
+			string = builder.toString();
 		}
 
 		return ChatColor.translateAlternateColorCodes('&', string);
@@ -0,0 +1,103 @@
+package wbs.utils.util.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AbstractDataManagerTest {
+
+    private static final WbsField UUID_FIELD = new WbsField("uuid", WbsFieldType.STRING);
+    private static final WbsField POINTS_FIELD = new WbsField("points", WbsFieldType.INT, 0);
+
+    private Path databaseFile;
+    private SQLiteConnectionPool pool;
+    private PointsManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("wbs-test", ".db");
+
+        WbsDatabase database = new WbsDatabase(null, "test");
+        pool = new SQLiteConnectionPool("jdbc:sqlite:" + databaseFile.toAbsolutePath());
+        database.setConnectionProvider(pool);
+
+        WbsTable table = new WbsTable(database, "points", UUID_FIELD);
+        table.addField(POINTS_FIELD);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(table.getCreationQuery());
+        }
+
+        manager = new PointsManager(table);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Test
+    void getAllFindsUuidKeyedRows() {
+        UUID saved = UUID.randomUUID();
+        UUID unsaved = UUID.randomUUID();
+
+        manager.save(List.of(new PlayerPoints(saved, 42)));
+        manager.clearCache();
+
+        Map<UUID, PlayerPoints> loaded = manager.getAll(List.of(saved, unsaved));
+
+        assertEquals(42, loaded.get(saved).points);
+        assertEquals(0, loaded.get(unsaved).points);
+    }
+
+    private static final class PlayerPoints implements RecordProducer {
+        private final UUID uuid;
+        private final int points;
+
+        private PlayerPoints(UUID uuid, int points) {
+            this.uuid = uuid;
+            this.points = points;
+        }
+
+        @Override
+        public WbsRecord toRecord() {
+            WbsRecord record = new WbsRecord(null);
+            record.setField(UUID_FIELD, uuid);
+            record.setField(POINTS_FIELD, points);
+            return record;
+        }
+    }
+
+    private static final class PointsManager extends AbstractDataManager<PlayerPoints, UUID> {
+        private PointsManager(WbsTable table) {
+            super(null, table);
+        }
+
+        @Override
+        protected @NotNull PlayerPoints fromRecord(@NotNull WbsRecord record) {
+            return new PlayerPoints(
+                    UUID.fromString(record.getValue(UUID_FIELD, String.class)),
+                    record.getValue(POINTS_FIELD, Integer.class)
+            );
+        }
+
+        @Override
+        protected @NotNull PlayerPoints produceDefault(UUID key) {
+            return new PlayerPoints(key, 0);
+        }
+    }
+}
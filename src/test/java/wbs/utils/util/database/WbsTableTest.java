@@ -0,0 +1,96 @@
+package wbs.utils.util.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import wbs.utils.exceptions.WbsDatabaseException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WbsTableTest {
+
+    private static final WbsField NAME_FIELD = new WbsField("name", WbsFieldType.STRING);
+    private static final WbsField POINTS_FIELD = new WbsField("points", WbsFieldType.INT, 0);
+
+    private Path databaseFile;
+    private SQLiteConnectionPool pool;
+    private WbsTable table;
+
+    @BeforeEach
+    void setUp() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("wbs-test", ".db");
+
+        WbsDatabase database = new WbsDatabase(null, "test");
+        pool = new SQLiteConnectionPool("jdbc:sqlite:" + databaseFile.toAbsolutePath());
+        database.setConnectionProvider(pool);
+
+        table = new WbsTable(database, "points", NAME_FIELD);
+        table.addField(POINTS_FIELD);
+
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(table.getCreationQuery());
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        pool.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Test
+    void insertKeepsOtherRecordsWhenOneFails() throws SQLException {
+        // More than one batch, with the duplicate key in the second so the first has already run
+        List<WbsRecord> records = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            records.add(record("player-" + i, i));
+        }
+        records.set(550, record("player-10", -1));
+
+        try (Connection connection = pool.getConnection()) {
+            WbsDatabaseException exception = assertThrows(WbsDatabaseException.class,
+                    () -> table.insert(records, connection));
+            assertEquals(1, exception.getQueryExceptions().size());
+
+            assertTrue(connection.getAutoCommit());
+        }
+
+        assertEquals(599, countRows());
+        assertEquals(10, getPoints("player-10"));
+        assertEquals(551, getPoints("player-551"));
+    }
+
+    private static WbsRecord record(String name, int points) {
+        WbsRecord record = new WbsRecord(null);
+        record.setField(NAME_FIELD, name);
+        record.setField(POINTS_FIELD, points);
+        return record;
+    }
+
+    private int countRows() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM points")) {
+            return result.getInt(1);
+        }
+    }
+
+    private int getPoints(String name) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT points FROM points WHERE name = '" + name + "'")) {
+            assertTrue(result.next());
+            return result.getInt(1);
+        }
+    }
+}